@@ -0,0 +1,188 @@
+package com.ecommerce.sbecom.cache;
+
+import com.ecommerce.sbecom.payload.CacheStatsDTO;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded read-through cache that evicts the least recently used entry once
+ * {@code maxSize} is reached and drops entries older than {@code ttlMillis}.
+ * A value loaded by {@link #get} is only stored if its key was not invalidated
+ * while the load was running, so a slow reader never puts back what a writer removed.
+ */
+public class LruTtlCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+    // In-flight loads; invalidating a key withdraws its token so the load's result is dropped.
+    private final Map<K, Object> loading = new HashMap<>();
+
+    public LruTtlCache(String name, int maxSize, long ttlMillis) {
+        this(name, maxSize, ttlMillis, System::currentTimeMillis);
+    }
+
+    // The clock returns epoch milliseconds; tests pass their own to step past a TTL without sleeping.
+    LruTtlCache(String name, int maxSize, long ttlMillis, LongSupplier clock) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruTtlCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Object token = new Object();
+        lock.lock();
+        try {
+            loading.put(key, token);
+        } finally {
+            lock.unlock();
+        }
+
+        // Loaded outside the lock so a slow query never blocks other readers.
+        V loaded = null;
+        try {
+            loaded = loader.apply(key);
+        } finally {
+            V value = loaded;
+            lock.lock();
+            try {
+                if (loading.remove(key, token) && value != null) {
+                    entries.put(key, new Entry<>(value, clock.getAsLong() + ttlMillis));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return loaded;
+    }
+
+    public V getIfPresent(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            if (entry.isExpired(clock.getAsLong())) {
+                entries.remove(key);
+                expirations.incrementAndGet();
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    // Entries never outlive the cache TTL, but may be given an earlier deadline of their own.
+    public void put(K key, V value, long expiresAtMillis) {
+        long expiresAt = Math.min(clock.getAsLong() + ttlMillis, expiresAtMillis);
+        lock.lock();
+        try {
+            entries.put(key, new Entry<>(value, expiresAt));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+            loading.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateIf(BiPredicate<K, V> predicate) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Entry<V>> entry = iterator.next();
+                if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                    iterator.remove();
+                }
+            }
+            // A value still being loaded cannot be tested yet, so none of them may be stored.
+            loading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+            loading.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStatsDTO stats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long requests = hitCount + missCount;
+        double hitRate = requests == 0 ? 0.0 : (double) hitCount / requests;
+        return new CacheStatsDTO(name, size(), maxSize, hitCount, missCount,
+                evictions.get(), expirations.get(), hitRate);
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ecommerce.sbecom.cache;
+
+import com.ecommerce.sbecom.payload.CacheStatsDTO;
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+@Component
+public class ProductCache {
+
+    private final LruTtlCache<Long, ProductDTO> products;
+    private final LruTtlCache<PageKey, ProductResponse> pages;
+
+    public ProductCache(@Value("${project.cache.products.max-size:10000}") int maxProducts,
+                        @Value("${project.cache.pages.max-size:1000}") int maxPages,
+                        @Value("${project.cache.products.ttl-seconds:300}") long ttlSeconds) {
+        this.products = new LruTtlCache<>("products", maxProducts, ttlSeconds * 1000);
+        this.pages = new LruTtlCache<>("productPages", maxPages, ttlSeconds * 1000);
+    }
+
+    // Cached DTOs are shared between requests, so callers always get their own copy to work with.
+    public ProductDTO getProduct(Long productId, Supplier<ProductDTO> loader) {
+        return copyOf(products.get(productId, id -> loader.get()));
+    }
+
+    // stockSensitive marks listings whose membership or order depends on stock levels (an in-stock
+    // filter or a sort by quantity); a stock change anywhere may alter them.
+    public ProductResponse getPage(String key, boolean stockSensitive, Supplier<ProductResponse> loader) {
+        return copyOf(pages.get(new PageKey(key, stockSensitive), k -> loader.get()));
+    }
+
+    // Eviction calls made inside a transaction also run again after it commits: a read between the
+    // first eviction and the commit still sees the old row and would otherwise cache it for a full TTL.
+
+    // A changed name, price or stock level can move a product into or out of any listing,
+    // so every cached page is dropped along with the product itself.
+    public void evictProduct(Long productId) {
+        nowAndAfterCommit(() -> {
+            products.invalidate(productId);
+            pages.invalidateAll();
+        });
+    }
+
+    // Checkout, reservations and restocks change stock on every call, so they must not flush
+    // every listing: only pages showing one of the products, and stock-sensitive pages, are dropped.
+    public void evictStock(Collection<Long> productIds) {
+        Set<Long> ids = Set.copyOf(productIds);
+        nowAndAfterCommit(() -> {
+            ids.forEach(products::invalidate);
+            pages.invalidateIf((key, page) -> key.stockSensitive() || showsAny(page, ids));
+        });
+    }
+
+    // Only the image changed: listings keep their membership and order, so just the pages
+    // that actually show this product need to go.
+    public void evictProductImage(Long productId) {
+        Set<Long> ids = Set.of(productId);
+        nowAndAfterCommit(() -> {
+            products.invalidate(productId);
+            pages.invalidateIf((key, page) -> showsAny(page, ids));
+        });
+    }
+
+    public void evictPages() {
+        nowAndAfterCommit(pages::invalidateAll);
+    }
+
+    public void evictAll() {
+        nowAndAfterCommit(() -> {
+            products.invalidateAll();
+            pages.invalidateAll();
+        });
+    }
+
+    private static boolean showsAny(ProductResponse page, Set<Long> productIds) {
+        return page.getContent().stream().anyMatch(product -> productIds.contains(product.getProductId()));
+    }
+
+    private static ProductDTO copyOf(ProductDTO product) {
+        if (product == null) {
+            return null;
+        }
+        return new ProductDTO(product.getProductId(), product.getProductName(), product.getImage(),
+                product.getThumbnailImage(), product.getDescription(), product.getQuantity(), product.getPrice(),
+                product.getDiscount(), product.getSpecialPrice(), product.getCategoryId());
+    }
+
+    private static ProductResponse copyOf(ProductResponse page) {
+        if (page == null) {
+            return null;
+        }
+        List<ProductDTO> content = page.getContent().stream().map(ProductCache::copyOf).toList();
+        return new ProductResponse(content, page.getPageNumber(), page.getPageSize(), page.getTotalElements(),
+                page.getTotalPages(), page.isLastPage(), page.getNextCursor());
+    }
+
+    private static void nowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    public List<CacheStatsDTO> stats() {
+        return List.of(products.stats(), pages.stats());
+    }
+
+    private record PageKey(String key, boolean stockSensitive) {
+    }
+}
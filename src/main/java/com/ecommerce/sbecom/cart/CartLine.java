@@ -0,0 +1,16 @@
+package com.ecommerce.sbecom.cart;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLine {
+    private Long productId;
+    private Integer quantity;
+    private long productPrice;
+    private double discount;
+    private long priceVersion;
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.sbecom.cart;
+
+import com.ecommerce.sbecom.entity.Cart;
+import com.ecommerce.sbecom.entity.CartItem;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Brings cart lines up to their product's current price when the cart is read. Each line remembers
+ * the price version it was priced at, so a price change costs nothing at update time and only carts
+ * that are actually looked at again are repriced, with an exact incremental change to the total.
+ */
+@Component
+public class CartPriceReconciler {
+
+    private final ProductRepository productRepository;
+
+    public CartPriceReconciler(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    // Caller holds the state's lock. One batched lookup covers every line of the cart.
+    public void reconcile(CartState cart) {
+        if (cart.getLines().isEmpty()) {
+            return;
+        }
+        List<Long> productIds = new ArrayList<>(cart.getLines().size());
+        cart.getLines().forEach(line -> productIds.add(line.getProductId()));
+
+        Map<Long, ProductPrice> prices = new HashMap<>();
+        productRepository.findPrices(productIds).forEach(price -> prices.put(price.productId(), price));
+
+        boolean changed = false;
+        for (CartLine line : cart.getLines()) {
+            ProductPrice price = prices.get(line.getProductId());
+            if (price == null || price.priceVersion() == line.getPriceVersion()) {
+                continue;
+            }
+            cart.setTotalPrice(cart.getTotalPrice() + (price.specialPrice() - line.getProductPrice()) * line.getQuantity());
+            line.setProductPrice(price.specialPrice());
+            line.setDiscount(price.discount());
+            line.setPriceVersion(price.priceVersion());
+            changed = true;
+        }
+        if (changed) {
+            cart.markChanged();
+        }
+    }
+
+    // Checkout variant: the cart was loaded with its products, so no extra query is needed.
+    public void reconcile(Cart cart) {
+        for (CartItem item : cart.getCartItems()) {
+            Product product = item.getProduct();
+            if (product.getPriceVersion() == item.getProductPriceVersion()) {
+                continue;
+            }
+            cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice() - item.getProductPrice()) * item.getQuantity());
+            item.setProductPrice(product.getSpecialPrice());
+            item.setDiscount(product.getDiscount());
+            item.setProductPriceVersion(product.getPriceVersion());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.sbecom.cart;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One user's cart as held by the {@link CartStore}. Every access happens under {@link #lock};
+ * the version counter tells the write-behind whether the tables have caught up with it, and the
+ * generation is the cart row's generation when this copy was loaded.
+ */
+public class CartState {
+
+    private final Long userId;
+    private Long cartId;
+    private final long generation;
+    private long totalPrice;
+    private final Map<Long, CartLine> lines = new LinkedHashMap<>();
+
+    private long version;
+    private long persistedVersion;
+    private boolean removed;
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    final ReentrantLock lock = new ReentrantLock();
+
+    public CartState(Long userId, Long cartId, long generation, long totalPrice) {
+        this.userId = userId;
+        this.cartId = cartId;
+        this.generation = generation;
+        this.totalPrice = totalPrice;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getCartId() {
+        return cartId;
+    }
+
+    void setCartId(Long cartId) {
+        this.cartId = cartId;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public long getTotalPrice() {
+        return totalPrice;
+    }
+
+    public void setTotalPrice(long totalPrice) {
+        this.totalPrice = totalPrice;
+    }
+
+    public CartLine getLine(Long productId) {
+        return lines.get(productId);
+    }
+
+    public Collection<CartLine> getLines() {
+        return Collections.unmodifiableCollection(lines.values());
+    }
+
+    public void putLine(CartLine line) {
+        lines.put(line.getProductId(), line);
+    }
+
+    public CartLine removeLine(Long productId) {
+        return lines.remove(productId);
+    }
+
+    public void clear() {
+        lines.clear();
+        totalPrice = 0L;
+    }
+
+    boolean isDirty() {
+        return version != persistedVersion;
+    }
+
+    void markChanged() {
+        version++;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    // Takes the version that was written, which may be older than the current one by the time the write commits.
+    void markPersisted(long writtenVersion) {
+        persistedVersion = Math.max(persistedVersion, writtenVersion);
+    }
+
+    // Restored from a snapshot: nothing is known to be in the tables yet.
+    void markUnpersisted() {
+        persistedVersion = version - 1;
+    }
+
+    boolean isRemoved() {
+        return removed;
+    }
+
+    void markRemoved() {
+        removed = true;
+    }
+
+    void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    CartStateSnapshot snapshot() {
+        List<CartLine> copies = new ArrayList<>(lines.size());
+        for (CartLine line : lines.values()) {
+            copies.add(new CartLine(line.getProductId(), line.getQuantity(), line.getProductPrice(),
+                    line.getDiscount(), line.getPriceVersion()));
+        }
+        return new CartStateSnapshot(userId, cartId, generation, totalPrice, copies);
+    }
+
+    static CartState restore(CartStateSnapshot snapshot) {
+        CartState state = new CartState(snapshot.userId(), snapshot.cartId(), snapshot.generation(),
+                snapshot.totalPrice());
+        snapshot.lines().forEach(state::putLine);
+        state.markUnpersisted();
+        return state;
+    }
+}
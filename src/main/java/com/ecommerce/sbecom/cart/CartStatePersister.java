@@ -0,0 +1,182 @@
+package com.ecommerce.sbecom.cart;
+
+import com.ecommerce.sbecom.entity.Cart;
+import com.ecommerce.sbecom.entity.CartItem;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.repository.CartRepository;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves cart state between the store and the carts/cart_items tables. Writes join the caller's
+ * transaction when there is one, so a flush from inside checkout is seen by checkout's own reads
+ * and never needs a second connection; the store only counts the write once it has committed.
+ */
+@Component
+public class CartStatePersister {
+
+    private final CartRepository cartRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public CartStatePersister(CartRepository cartRepository,
+                              ProductRepository productRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    CartState load(Long userId, boolean create) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findCartWithItemsByUserId(userId);
+            if (cart == null) {
+                if (!create) {
+                    return null;
+                }
+                cart = new Cart();
+                cart.setUser(entityManager.getReference(User.class, userId));
+                cart = cartRepository.save(cart);
+            }
+
+            CartState state = new CartState(userId, cart.getCartId(), cart.getGeneration(), cart.getTotalPrice());
+            for (CartItem item : cart.getCartItems()) {
+                state.putLine(new CartLine(item.getProduct().getProductId(), item.getQuantity(),
+                        item.getProductPrice(), item.getDiscount(), item.getProductPriceVersion()));
+            }
+            return state;
+        });
+    }
+
+    /**
+     * Caller holds the state's lock. Returns false without writing anything when the cart row has moved
+     * to a newer generation than the state was loaded at; the caller must then discard the state. Lines
+     * whose product has been deleted meanwhile are dropped from both sides.
+     */
+    boolean write(CartState state) {
+        CartStateSnapshot snapshot = state.snapshot();
+        long writtenVersion = state.getVersion();
+        List<CartLine> dropped = new ArrayList<>();
+
+        Long cartId = transactionTemplate.execute(status -> {
+            // The row lock orders this write against checkout's generation bump.
+            Cart cart = cartRepository.lockCartByUserId(snapshot.userId());
+            if (cart == null) {
+                if (snapshot.cartId() != null) {
+                    return null;
+                }
+                cart = new Cart();
+                cart.setUser(entityManager.getReference(User.class, snapshot.userId()));
+            } else if (cart.getGeneration() != snapshot.generation()) {
+                return null;
+            } else {
+                cart = cartRepository.findCartWithItemsByUserId(snapshot.userId());
+            }
+
+            Set<Long> productIds = new HashSet<>();
+            snapshot.lines().forEach(line -> productIds.add(line.getProductId()));
+            Set<Long> existing = productIds.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingIds(productIds));
+
+            Map<Long, CartItem> current = new HashMap<>();
+            cart.getCartItems().forEach(item -> current.put(item.getProduct().getProductId(), item));
+
+            long totalPrice = snapshot.totalPrice();
+            for (CartLine line : snapshot.lines()) {
+                if (!existing.contains(line.getProductId())) {
+                    dropped.add(line);
+                    totalPrice -= line.getProductPrice() * line.getQuantity();
+                    continue;
+                }
+                CartItem item = current.remove(line.getProductId());
+                if (item == null) {
+                    item = new CartItem();
+                    item.setCart(cart);
+                    item.setProduct(entityManager.getReference(Product.class, line.getProductId()));
+                    cart.getCartItems().add(item);
+                }
+                item.setQuantity(line.getQuantity());
+                item.setProductPrice(line.getProductPrice());
+                item.setDiscount(line.getDiscount());
+                item.setProductPriceVersion(line.getPriceVersion());
+            }
+            cart.getCartItems().removeAll(current.values());
+            cart.setTotalPrice(totalPrice);
+            return cartRepository.save(cart).getCartId();
+        });
+        if (cartId == null) {
+            return false;
+        }
+
+        afterCommit(() -> {
+            state.lock.lock();
+            try {
+                state.setCartId(cartId);
+                for (CartLine line : dropped) {
+                    if (state.removeLine(line.getProductId()) != null) {
+                        state.setTotalPrice(state.getTotalPrice() - line.getProductPrice() * line.getQuantity());
+                    }
+                }
+                state.markPersisted(writtenVersion);
+            } finally {
+                state.lock.unlock();
+            }
+        });
+        return true;
+    }
+
+    // Returns the cart's new generation, or null when the user has no cart.
+    Long bumpGeneration(Long userId) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.lockCartByUserId(userId);
+            if (cart == null) {
+                return null;
+            }
+            cart.setGeneration(cart.getGeneration() + 1);
+            return cart.getGeneration();
+        });
+    }
+
+    Map<Long, Long> currentGenerations(Collection<Long> userIds) {
+        Map<Long, Long> generations = new HashMap<>();
+        if (userIds.isEmpty()) {
+            return generations;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Object[] row : cartRepository.findGenerationsByUserIdIn(userIds)) {
+                generations.put((Long) row[0], (Long) row[1]);
+            }
+        });
+        return generations;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
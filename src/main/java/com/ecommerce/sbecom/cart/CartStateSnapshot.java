@@ -0,0 +1,6 @@
+package com.ecommerce.sbecom.cart;
+
+import java.util.List;
+
+public record CartStateSnapshot(Long userId, Long cartId, long generation, long totalPrice, List<CartLine> lines) {
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.sbecom.cart;
+
+import java.util.function.Function;
+
+/**
+ * Working copy of shoppers' carts, keyed by user id. Mutations are applied to the store and
+ * written to the carts and cart_items tables asynchronously; those tables stay the source of truth
+ * for checkout and for any code that writes them directly, which must call {@link #flush} (to read)
+ * or {@link #invalidate} (to write) first, inside its own transaction.
+ */
+public interface CartStore {
+
+    // Returns null without calling the reader when the user has no cart. Changes the reader marks, such as
+    // repricing stale lines, are written behind like any update.
+    <T> T read(Long userId, Function<CartState, T> reader);
+
+    // Creates the cart if the user has none yet.
+    <T> T update(Long userId, Function<CartState, T> mutation);
+
+    void flush(Long userId);
+
+    // For callers about to write the cart's rows directly. Writes pending changes in the caller's transaction,
+    // drops the cached copy and bumps the cart's generation, so no copy loaded before the caller commits is
+    // ever written back. If the caller rolls back, the pending changes go back to write-behind.
+    void invalidate(Long userId);
+}
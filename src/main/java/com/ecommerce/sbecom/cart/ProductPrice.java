@@ -0,0 +1,5 @@
+package com.ecommerce.sbecom.cart;
+
+// Current price of a product as far as carts are concerned; specialPrice is in minor units.
+public record ProductPrice(Long productId, long specialPrice, double discount, long priceVersion) {
+}
@@ -0,0 +1,386 @@
+package com.ecommerce.sbecom.cart;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * In-process {@link CartStore}. Carts are spread over a fixed number of shards, each a plain map
+ * behind its own lock, so users on different shards never contend; the shard lock only guards
+ * the map, and each cart has its own lock for reads and mutations. Changed carts are written to
+ * the tables by a write-behind task and snapshotted to a local file so a crash between writes
+ * loses nothing. A copy is only written back while the cart row is still at the generation it was
+ * loaded at, so nothing cached or snapshotted before a checkout can resurrect the ordered lines.
+ * Carts are node-local, so requests for one user must stick to one node.
+ */
+@Slf4j
+@Component
+public class ShardedCartStore implements CartStore {
+
+    private static final TypeReference<List<CartStateSnapshot>> SNAPSHOT_TYPE = new TypeReference<>() {
+    };
+
+    private final Shard[] shards;
+    private final Set<Long> dirtyUsers = ConcurrentHashMap.newKeySet();
+    private final CartStatePersister persister;
+    private final ObjectMapper objectMapper;
+    private final Path snapshotFile;
+    private final long idleMillis;
+
+    public ShardedCartStore(CartStatePersister persister,
+                            ObjectMapper objectMapper,
+                            @Value("${project.cart.shards:64}") int shardCount,
+                            @Value("${project.cart.snapshot-file:cart-snapshot.json}") String snapshotFile,
+                            @Value("${project.cart.idle-minutes:30}") long idleMinutes) {
+        this.persister = persister;
+        this.objectMapper = objectMapper;
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.idleMillis = idleMinutes * 60_000;
+        this.shards = new Shard[Integer.highestOneBit(Math.max(shardCount, 1))];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    @Override
+    public <T> T read(Long userId, Function<CartState, T> reader) {
+        while (true) {
+            CartState state = getOrLoad(userId, false);
+            if (state == null) {
+                return null;
+            }
+            state.lock.lock();
+            try {
+                if (state.isRemoved()) {
+                    continue;
+                }
+                state.touch();
+                T result = reader.apply(state);
+                if (state.isDirty()) {
+                    dirtyUsers.add(userId);
+                }
+                return result;
+            } finally {
+                state.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public <T> T update(Long userId, Function<CartState, T> mutation) {
+        while (true) {
+            CartState state = getOrLoad(userId, true);
+            state.lock.lock();
+            try {
+                if (state.isRemoved()) {
+                    continue;
+                }
+                state.touch();
+                T result = mutation.apply(state);
+                state.markChanged();
+                dirtyUsers.add(userId);
+                return result;
+            } finally {
+                state.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void flush(Long userId) {
+        CartState state = peek(userId);
+        if (state == null) {
+            return;
+        }
+        state.lock.lock();
+        try {
+            writeOrDiscard(state);
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(Long userId) {
+        CartState state = peek(userId);
+        CartState dropped = null;
+        if (state != null) {
+            state.lock.lock();
+            try {
+                if (!state.isRemoved()) {
+                    writeOrDiscard(state);
+                    remove(state);
+                    dropped = state;
+                }
+            } finally {
+                state.lock.unlock();
+            }
+        }
+        Long generation = persister.bumpGeneration(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            CartState pending = dropped;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        // A request that reloaded the cart before the caller committed cached pre-commit rows.
+                        dropOlderThan(userId, generation);
+                    } else if (pending != null) {
+                        republishIfDirty(pending);
+                    }
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${project.cart.write-behind-ms:1000}")
+    public void writeBehind() {
+        for (Iterator<Long> it = dirtyUsers.iterator(); it.hasNext(); ) {
+            Long userId = it.next();
+            it.remove();
+            CartState state = peek(userId);
+            if (state == null) {
+                continue;
+            }
+            state.lock.lock();
+            try {
+                writeOrDiscard(state);
+            } catch (RuntimeException e) {
+                dirtyUsers.add(userId);
+                log.warn("Cart write-behind failed for user {}: {}", userId, e.getMessage());
+            } finally {
+                state.lock.unlock();
+            }
+        }
+        evictIdle();
+    }
+
+    @Scheduled(fixedDelayString = "${project.cart.snapshot-interval-ms:10000}")
+    public void snapshot() {
+        List<CartStateSnapshot> pending = new ArrayList<>();
+        for (Long userId : dirtyUsers) {
+            CartState state = peek(userId);
+            if (state == null) {
+                continue;
+            }
+            state.lock.lock();
+            try {
+                if (!state.isRemoved() && state.isDirty()) {
+                    pending.add(state.snapshot());
+                }
+            } finally {
+                state.lock.unlock();
+            }
+        }
+
+        try {
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(snapshotFile);
+                return;
+            }
+            Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            objectMapper.writeValue(temp.toFile(), pending);
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write cart snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Carts that never reached the tables before the last shutdown or crash are queued for write-behind
+     * again, unless the cart has been checked out or otherwise rewritten since the snapshot was taken.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try {
+            List<CartStateSnapshot> snapshots = objectMapper.readValue(snapshotFile.toFile(), SNAPSHOT_TYPE);
+            Map<Long, Long> generations = persister.currentGenerations(
+                    snapshots.stream().map(CartStateSnapshot::userId).toList());
+            List<CartStateSnapshot> pending = snapshots.stream()
+                    .filter(snapshot -> isCurrent(snapshot, generations.get(snapshot.userId())))
+                    .toList();
+            for (CartStateSnapshot snapshot : pending) {
+                CartState state = CartState.restore(snapshot);
+                Shard shard = shardFor(snapshot.userId());
+                shard.lock.lock();
+                try {
+                    shard.states.put(snapshot.userId(), state);
+                } finally {
+                    shard.lock.unlock();
+                }
+                dirtyUsers.add(snapshot.userId());
+            }
+            log.info("Restored {} unsaved carts from {}, skipped {} rewritten since", pending.size(), snapshotFile,
+                    snapshots.size() - pending.size());
+        } catch (IOException e) {
+            log.error("Could not read cart snapshot {}", snapshotFile, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeBehind();
+        snapshot();
+    }
+
+    private CartState getOrLoad(Long userId, boolean create) {
+        CartState state = peek(userId);
+        if (state != null) {
+            return state;
+        }
+
+        // Loaded outside the shard lock; if two requests race, the first one to publish wins.
+        CartState loaded = persister.load(userId, create);
+        if (loaded == null) {
+            return null;
+        }
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            CartState existing = shard.states.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private CartState peek(Long userId) {
+        Shard shard = shardFor(userId);
+        shard.lock.lock();
+        try {
+            return shard.states.get(userId);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Caller holds the state's lock.
+    private void remove(CartState state) {
+        state.markRemoved();
+        Shard shard = shardFor(state.getUserId());
+        shard.lock.lock();
+        try {
+            shard.states.remove(state.getUserId(), state);
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    // Caller holds the state's lock.
+    private void writeOrDiscard(CartState state) {
+        if (!state.isRemoved() && state.isDirty() && !persister.write(state)) {
+            log.info("Discarded cart changes for user {} made before the cart was last rewritten", state.getUserId());
+            remove(state);
+        }
+    }
+
+    private static boolean isCurrent(CartStateSnapshot snapshot, Long generation) {
+        if (generation == null) {
+            return snapshot.cartId() == null;
+        }
+        return generation == snapshot.generation();
+    }
+
+    private void dropOlderThan(Long userId, Long generation) {
+        CartState state = peek(userId);
+        if (state == null || generation == null) {
+            return;
+        }
+        state.lock.lock();
+        try {
+            if (!state.isRemoved() && state.getGeneration() < generation) {
+                remove(state);
+            }
+        } finally {
+            state.lock.unlock();
+        }
+    }
+
+    // The caller rolled back, taking the write of these changes with it; they go back to write-behind.
+    private void republishIfDirty(CartState dropped) {
+        CartStateSnapshot snapshot;
+        dropped.lock.lock();
+        try {
+            if (!dropped.isDirty()) {
+                return;
+            }
+            snapshot = dropped.snapshot();
+        } finally {
+            dropped.lock.unlock();
+        }
+        Shard shard = shardFor(snapshot.userId());
+        shard.lock.lock();
+        try {
+            if (shard.states.putIfAbsent(snapshot.userId(), CartState.restore(snapshot)) != null) {
+                return;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        dirtyUsers.add(snapshot.userId());
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (Shard shard : shards) {
+            List<CartState> idle = new ArrayList<>();
+            shard.lock.lock();
+            try {
+                for (CartState state : shard.states.values()) {
+                    if (state.getLastAccessMillis() < cutoff) {
+                        idle.add(state);
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+            for (CartState state : idle) {
+                if (state.lock.tryLock()) {
+                    try {
+                        if (!state.isRemoved() && !state.isDirty()) {
+                            remove(state);
+                        }
+                    } finally {
+                        state.lock.unlock();
+                    }
+                }
+            }
+        }
+    }
+
+    private Shard shardFor(Long userId) {
+        return shards[Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (shards.length - 1)];
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, CartState> states = new HashMap<>();
+    }
+}
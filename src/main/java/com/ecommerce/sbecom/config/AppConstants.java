@@ -6,6 +6,7 @@ public final class AppConstants {
     public static final String SORT_CATEGORIES_BY = "categoryId";
     public static final String SORT_PRODUCTS_BY = "productId";
     public static final String SORT_DIR = "asc";
+    public static final int MAX_PAGE_SIZE = 100;
 
     private AppConstants() {
         throw new UnsupportedOperationException("Cannot instantiate constants class");
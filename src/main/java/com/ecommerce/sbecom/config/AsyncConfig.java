@@ -0,0 +1,54 @@
+package com.ecommerce.sbecom.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    // Rendering and SMTP round trips run here, never on request threads. With virtual threads
+    // enabled (spring.threads.virtual.enabled on Java 21) each send gets its own virtual thread and
+    // the thread count only caps how many SMTP connections are open at once. That mode is
+    // experimental (see the virtual-threads profile in pom.xml): it has not been measured for
+    // pinning or throughput.
+    @Bean
+    public AsyncTaskExecutor mailTaskExecutor(@Value("${project.mail.outbox.threads:4}") int threads,
+                                              Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("mail-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(threads);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("mail-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    // Thumbnail generation is CPU heavy; a small pool keeps it from starving request handling.
+    // It stays on platform threads in either mode, since virtual threads do not help CPU-bound work.
+    @Bean
+    public ThreadPoolTaskExecutor imageTaskExecutor(@Value("${project.image.variants.threads:2}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("image-");
+        return executor;
+    }
+}
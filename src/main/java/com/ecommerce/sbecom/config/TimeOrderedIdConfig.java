@@ -0,0 +1,33 @@
+package com.ecommerce.sbecom.config;
+
+import com.ecommerce.sbecom.util.TimeOrderedIds;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the node id used by {@link TimeOrderedIds} from any Spring property source:
+ * {@code project.ids.node-id} (0-31) in application properties, on the command line or as
+ * {@code PROJECT_IDS_NODE_ID}. Every node must have a distinct id. Startup fails without one unless
+ * {@code project.ids.single-node=true} declares that only one instance ever runs, which uses node 0.
+ */
+@Slf4j
+@Configuration
+public class TimeOrderedIdConfig {
+
+    public TimeOrderedIdConfig(@Value("${project.ids.node-id:${PROJECT_IDS_NODE_ID:}}") String nodeId,
+                               @Value("${project.ids.single-node:false}") boolean singleNode) {
+        if (!nodeId.isBlank()) {
+            TimeOrderedIds.configure(Long.parseLong(nodeId.trim()));
+            log.info("Allocating time-ordered ids as node {}", nodeId.trim());
+            return;
+        }
+        if (!singleNode) {
+            throw new IllegalStateException("project.ids.node-id is not set. Give every instance a distinct id "
+                    + "between 0 and 31, or set project.ids.single-node=true if only one instance ever runs.");
+        }
+        log.warn("project.ids.node-id is not set; using node 0 because project.ids.single-node=true. "
+                + "A second instance started this way will generate duplicate primary keys.");
+        TimeOrderedIds.configure(0);
+    }
+}
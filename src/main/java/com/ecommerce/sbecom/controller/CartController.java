@@ -1,25 +1,26 @@
 package com.ecommerce.sbecom.controller;
 
-import com.ecommerce.sbecom.entity.Cart;
+import com.ecommerce.sbecom.config.AppConstants;
 import com.ecommerce.sbecom.payload.CartDTO;
 import com.ecommerce.sbecom.payload.CartItemDTO;
-import com.ecommerce.sbecom.repository.CartRepository;
+import com.ecommerce.sbecom.payload.CartResponse;
 import com.ecommerce.sbecom.service.CartService;
 import com.ecommerce.sbecom.util.AuthUtil;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 public class CartController {
-    @Autowired
-    private CartRepository cartRepository;
-
     @Autowired
     private AuthUtil authUtil;
 
@@ -42,19 +43,31 @@ public class CartController {
     }
 
 
+    @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/carts")
-    public ResponseEntity<List<CartDTO>> getCarts() {
-        List<CartDTO> cartDTOs = cartService.getAllCarts();
-        return new ResponseEntity<>(cartDTOs, HttpStatus.FOUND);
+    public ResponseEntity<CartResponse> getCarts(
+            @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) @Min(0) Integer pageNumber,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false)
+            @Min(1) @Max(AppConstants.MAX_PAGE_SIZE) Integer pageSize,
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder) {
+        CartResponse cartResponse = cartService.getAllCarts(pageNumber, pageSize, sortOrder);
+        return new ResponseEntity<>(cartResponse, HttpStatus.FOUND);
+    }
+
+    // Every cart as one chunked JSON array, written while the rows are still being read.
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/carts", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamCarts() {
+        StreamingResponseBody body = cartService::streamAllCarts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     @PreAuthorize("hasRole('USER')")
     @GetMapping("/carts/users/cart")
     public ResponseEntity<CartDTO> getCartById(){
-        String emailId = authUtil.loggedInEmail();
-        Cart cart = cartRepository.findCartByEmail(emailId);
-        Long cartId = cart.getCartId();
-        CartDTO cartDTO = cartService.getCart(emailId, cartId);
+        CartDTO cartDTO = cartService.getUserCart(authUtil.loggedInUserId());
         return new ResponseEntity<>(cartDTO, HttpStatus.OK);
     }
 
@@ -73,7 +86,7 @@ public class CartController {
     @DeleteMapping("/carts/{cartId}/product/{productId}")
     public ResponseEntity<String> deleteProductFromCart(@PathVariable Long cartId,
                                                         @PathVariable Long productId) {
-        String status = cartService.deleteProductFromCart(cartId, productId);
+        String status = cartService.removeProductFromCart(cartId, productId);
 
         return new ResponseEntity<>(status, HttpStatus.OK);
     }
@@ -1,20 +1,35 @@
 package com.ecommerce.sbecom.controller;
 
+import com.ecommerce.sbecom.config.AppConstants;
+import com.ecommerce.sbecom.payload.InventoryReservationDTO;
 import com.ecommerce.sbecom.payload.OrderDTO;
+import com.ecommerce.sbecom.payload.OrderHistoryResponse;
 import com.ecommerce.sbecom.payload.OrderRequestDTO;
+import com.ecommerce.sbecom.payload.OrderStatusResultDTO;
+import com.ecommerce.sbecom.payload.OrderStatusUpdateRequest;
+import com.ecommerce.sbecom.service.InventoryService;
 import com.ecommerce.sbecom.service.OrderService;
 import com.ecommerce.sbecom.util.AuthUtil;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api")
 public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private InventoryService inventoryService;
+
     @Autowired
     private AuthUtil authUtil;
 
@@ -34,6 +49,20 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.CREATED);
     }
 
+    @PostMapping("/order/users/reservations")
+    public ResponseEntity<List<InventoryReservationDTO>> reserveCart() {
+        String emailId = authUtil.loggedInEmail();
+        List<InventoryReservationDTO> reservations = inventoryService.reserveCart(emailId);
+        return new ResponseEntity<>(reservations, HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/order/users/reservations")
+    public ResponseEntity<String> releaseReservations() {
+        String emailId = authUtil.loggedInEmail();
+        inventoryService.releaseReservations(emailId);
+        return ResponseEntity.ok("Reserved stock released.");
+    }
+
     @GetMapping("/orders")
     public ResponseEntity<OrderDTO> getOrderById(@RequestParam Long orderId) {
         String emailId = authUtil.loggedInEmail();
@@ -41,6 +70,16 @@ public class OrderController {
         return new ResponseEntity<>(order, HttpStatus.OK);
     }
 
+    @GetMapping("/orders/history")
+    public ResponseEntity<OrderHistoryResponse> getOrderHistory(
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false)
+            @Min(1) @Max(AppConstants.MAX_PAGE_SIZE) Integer pageSize,
+            @RequestParam(name = "cursor", required = false) String cursor) {
+        String emailId = authUtil.loggedInEmail();
+        OrderHistoryResponse orderHistory = orderService.getOrderHistory(emailId, pageSize, cursor);
+        return new ResponseEntity<>(orderHistory, HttpStatus.OK);
+    }
+
     @PutMapping("/orders/{orderId}/cancel")
     public ResponseEntity<String> cancelOrder(@PathVariable Long orderId) {
         String emailId = authUtil.loggedInEmail();
@@ -48,17 +87,29 @@ public class OrderController {
         return ResponseEntity.ok("Order cancelled and email sent.");
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
     @PutMapping("/orders/{orderId}/ship")
     public ResponseEntity<String> shipOrder(@PathVariable Long orderId) {
-        String emailId = authUtil.loggedInEmail();
-        orderService.markOrderShipped(emailId, orderId);
+        orderService.markOrderShipped(orderId);
         return ResponseEntity.ok("Order marked as shipped and email sent.");
     }
 
-    @PutMapping("orders/{orderId}/deliver")
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/admin/orders/ship")
+    public ResponseEntity<List<OrderStatusResultDTO>> shipOrders(@Valid @RequestBody OrderStatusUpdateRequest request) {
+        return ResponseEntity.ok(orderService.markOrdersShipped(request.getOrderIds()));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/admin/orders/deliver")
+    public ResponseEntity<List<OrderStatusResultDTO>> deliverOrders(@Valid @RequestBody OrderStatusUpdateRequest request) {
+        return ResponseEntity.ok(orderService.markOrdersDelivered(request.getOrderIds()));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/orders/{orderId}/deliver")
     public ResponseEntity<String> deliverOrder(@PathVariable Long orderId) {
-        String emailId = authUtil.loggedInEmail();
-        orderService.markOrderDelivered(emailId, orderId);
+        orderService.markOrderDelivered(orderId);
         return ResponseEntity.ok("Order delivered and email sent.");
     }
 }
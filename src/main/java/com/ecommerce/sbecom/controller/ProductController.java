@@ -2,11 +2,17 @@ package com.ecommerce.sbecom.controller;
 
 import com.ecommerce.sbecom.config.AppConstants;
 import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.payload.CacheStatsDTO;
 import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductFilterDTO;
+import com.ecommerce.sbecom.payload.ProductImportReport;
 import com.ecommerce.sbecom.payload.ProductResponse;
+import com.ecommerce.sbecom.service.ProductImportService;
 import com.ecommerce.sbecom.service.ProductService;
 import com.ecommerce.sbecom.util.AuthUtil;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -14,17 +20,21 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api")
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
     private final AuthUtil authUtil;
 
     public ProductController(ProductService productService,
+                             ProductImportService productImportService,
                              AuthUtil authUtil) {
         this.productService = productService;
+        this.productImportService = productImportService;
         this.authUtil = authUtil;
     }
 
@@ -35,18 +45,25 @@ public class ProductController {
         return new ResponseEntity<>(savedProductDTO, HttpStatus.CREATED);
     }
 
+    @PreAuthorize("hasRole('SELLER')")
+    @PostMapping("/products/import")
+    public ResponseEntity<ProductImportReport> importProducts(@RequestParam("file") MultipartFile file) throws IOException {
+        ProductImportReport report = productImportService.importProducts(file);
+        return ResponseEntity.ok(report);
+    }
+
     @GetMapping("/products")
     public ResponseEntity<ProductResponse> getAllProducts(
-            @RequestParam(name = "query", required = false) String query,
-            @RequestParam(name = "categoryId", required = false) Long categoryId,
-            @RequestParam(name = "createdByMe", required = false, defaultValue = "false") Boolean createdByMe,
-            @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) Integer pageNumber,
-            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false) Integer pageSize,
+            ProductFilterDTO filterDTO,
+            @RequestParam(name = "pageNumber", defaultValue = AppConstants.PAGE_NUMBER, required = false) @Min(0) Integer pageNumber,
+            @RequestParam(name = "pageSize", defaultValue = AppConstants.PAGE_SIZE, required = false)
+            @Min(1) @Max(AppConstants.MAX_PAGE_SIZE) Integer pageSize,
             @RequestParam(name = "sortBy", defaultValue = AppConstants.SORT_PRODUCTS_BY, required = false) String sortBy,
-            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder
+            @RequestParam(name = "sortOrder", defaultValue = AppConstants.SORT_DIR, required = false) String sortOrder,
+            @RequestParam(name = "cursor", required = false) String cursor
     ){
-        User currentUser = authUtil.loggedInUser();
-        ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, query, categoryId, createdByMe, currentUser);
+        User currentUser = Boolean.TRUE.equals(filterDTO.getCreatedByMe()) ? authUtil.loggedInUser() : null;
+        ProductResponse productResponse = productService.getAllProducts(pageNumber, pageSize, sortBy, sortOrder, cursor, filterDTO, currentUser);
         return ResponseEntity.ok(productResponse);
     }
 
@@ -78,4 +95,10 @@ public class ProductController {
         ProductDTO updatedProductDTO = productService.updateProductImage(productId, image);
         return ResponseEntity.ok(updatedProductDTO);
     }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/admin/products/cache/stats")
+    public ResponseEntity<List<CacheStatsDTO>> getProductCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
 }
@@ -0,0 +1,58 @@
+package com.ecommerce.sbecom.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "email_notifications",
+        indexes = @Index(name = "idx_email_notifications_status_due", columnList = "status, next_attempt_at"))
+public class EmailNotification {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long notificationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private EmailType emailType;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String recipientName;
+    private Long orderId;
+    private String orderAmount;
+
+    @Column(length = 500)
+    private String shippingAddress;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private NotificationStatus status = NotificationStatus.PENDING;
+
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private Instant createdAt;
+    private Instant sentAt;
+
+    public EmailNotification(EmailType emailType, String recipient, String recipientName, Long orderId) {
+        this.emailType = emailType;
+        this.recipient = recipient;
+        this.recipientName = recipientName;
+        this.orderId = orderId;
+        this.createdAt = Instant.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
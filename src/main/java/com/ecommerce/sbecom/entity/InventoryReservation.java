@@ -0,0 +1,53 @@
+package com.ecommerce.sbecom.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Stock held for a shopper between "reserve" and checkout. The units are already taken out of
+ * {@code products.quantity}; they go back if the reservation expires or is released.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "inventory_reservations",
+        indexes = {
+                @Index(name = "idx_inventory_reservations_email_status", columnList = "email, status"),
+                @Index(name = "idx_inventory_reservations_status_expires", columnList = "status, expires_at")
+        })
+public class InventoryReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long reservationId;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ReservationStatus status = ReservationStatus.ACTIVE;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant createdAt;
+
+    public InventoryReservation(String email, Long productId, Integer quantity, Instant expiresAt) {
+        this.email = email;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.expiresAt = expiresAt;
+        this.createdAt = Instant.now();
+    }
+}
@@ -0,0 +1,20 @@
+package com.ecommerce.sbecom.entity;
+
+import com.ecommerce.sbecom.util.Money;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+// Minor units in the entity, major units in the DOUBLE column, so existing rows keep their values.
+@Converter
+public class MoneyConverter implements AttributeConverter<Long, Double> {
+
+    @Override
+    public Double convertToDatabaseColumn(Long minor) {
+        return minor == null ? null : Money.toMajor(minor);
+    }
+
+    @Override
+    public Long convertToEntityAttribute(Double major) {
+        return major == null ? null : Money.toMinor(major);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.sbecom.entity;
+
+public enum NotificationStatus {
+    PENDING,
+    PROCESSING,
+    SENT,
+    FAILED
+}
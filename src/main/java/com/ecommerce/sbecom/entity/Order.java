@@ -12,13 +12,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+        indexes = @Index(name = "idx_orders_email_date_id", columnList = "email, order_date, order_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Order {
+    public static final String STATUS_ACCEPTED = "Order Accepted !";
+    public static final String STATUS_SHIPPED = "Order Shipped";
+    public static final String STATUS_DELIVERED = "Order Delivered";
+    public static final String STATUS_CANCELLED = "Order Cancelled";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long orderId;
 
     @Email
@@ -35,7 +41,9 @@ public class Order {
     @JoinColumn(name = "payment_id")
     private Payment payment;
 
-    private Double totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Long totalAmount;
+
     private String orderStatus;
 
     // Reference to Address
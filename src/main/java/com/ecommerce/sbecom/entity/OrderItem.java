@@ -12,7 +12,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @TimeOrderedId
     private Long orderItemId;
 
     @ManyToOne
@@ -25,5 +25,6 @@ public class OrderItem {
 
     private Integer quantity;
     private double discount;
-    private double orderedProductPrice;
+    @Convert(converter = MoneyConverter.class)
+    private long orderedProductPrice;
 }
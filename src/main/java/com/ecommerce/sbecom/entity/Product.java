@@ -10,22 +10,35 @@ import lombok.ToString;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "products")
+@Table(name = "products",
+        indexes = {
+                @Index(name = "idx_products_category_special_price", columnList = "category_id, special_price"),
+                @Index(name = "idx_products_category_discount", columnList = "category_id, discount"),
+                @Index(name = "idx_products_seller_special_price", columnList = "seller_id, special_price")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_products_category_name_key",
+                columnNames = {"category_id", "product_name_key"}))
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @TimeOrderedId
     private Long productId;
 
     @NotBlank
     @Size(min = 3, message = "Product name must contain atleast 3 characters")
     private String productName;
 
+    // Normalized copy of productName backing the per-category uniqueness constraint.
+    @Column(name = "product_name_key")
+    private String productNameKey;
+
     private String image;
+    private String thumbnailImage;
 
     @NotBlank
     @Size(min = 6, message = "Product description must contain atleast 6 characters")
@@ -33,18 +46,45 @@ public class Product {
 
     private Integer quantity;
 
-    private double price;
+    @Convert(converter = MoneyConverter.class)
+    private long price;
+
     private double discount;
-    private double specialPrice;
 
-    @ManyToOne
+    @Convert(converter = MoneyConverter.class)
+    private long specialPrice;
+
+    // Bumped whenever the special price or discount changes; cart lines record the version they were priced at.
+    private long priceVersion;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "seller_id")
     private User user;
 
     @OneToMany(mappedBy = "product", cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     private List<CartItem> cartItems = new ArrayList<>();
+
+    @PrePersist
+    @PreUpdate
+    private void updateProductNameKey() {
+        String key = nameKey(productName);
+        // A legacy duplicate keeps its disambiguated key until it is renamed.
+        if (productNameKey == null || productId == null || !productNameKey.equals(duplicateNameKey(key, productId))) {
+            productNameKey = key;
+        }
+    }
+
+    // The single normalisation for names; the startup backfill uses it too, so SQL never computes keys.
+    public static String nameKey(String productName) {
+        return productName == null ? null : productName.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Key given to products that already shared a name within their category before keys existed.
+    public static String duplicateNameKey(String nameKey, Long productId) {
+        return nameKey + "#" + productId;
+    }
 }
@@ -0,0 +1,7 @@
+package com.ecommerce.sbecom.entity;
+
+public enum ReservationStatus {
+    ACTIVE,
+    CONSUMED,
+    RELEASED
+}
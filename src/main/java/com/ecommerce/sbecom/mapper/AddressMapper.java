@@ -0,0 +1,32 @@
+package com.ecommerce.sbecom.mapper;
+
+import com.ecommerce.sbecom.entity.Address;
+import com.ecommerce.sbecom.payload.AddressDTO;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AddressMapper {
+
+    public AddressDTO toDTO(Address address) {
+        return new AddressDTO(
+                address.getAddressId(),
+                address.getBuildingName(),
+                address.getStreet(),
+                address.getCity(),
+                address.getState(),
+                address.getCountry(),
+                address.getPincode());
+    }
+
+    public Address toEntity(AddressDTO addressDTO) {
+        Address address = new Address(
+                addressDTO.getStreet(),
+                addressDTO.getBuildingName(),
+                addressDTO.getCity(),
+                addressDTO.getState(),
+                addressDTO.getCountry(),
+                addressDTO.getPincode());
+        address.setAddressId(addressDTO.getAddressId());
+        return address;
+    }
+}
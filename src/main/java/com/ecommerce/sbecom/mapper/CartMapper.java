@@ -0,0 +1,58 @@
+package com.ecommerce.sbecom.mapper;
+
+import com.ecommerce.sbecom.cart.CartLine;
+import com.ecommerce.sbecom.cart.CartState;
+import com.ecommerce.sbecom.entity.Cart;
+import com.ecommerce.sbecom.entity.CartItem;
+import com.ecommerce.sbecom.payload.CartDTO;
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.util.Money;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Component
+public class CartMapper {
+
+    private final ProductMapper productMapper;
+
+    public CartMapper(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    public CartDTO toDTO(Cart cart) {
+        List<CartItem> cartItems = cart.getCartItems();
+        List<ProductDTO> products = new ArrayList<>(cartItems.size());
+        for (CartItem cartItem : cartItems) {
+            products.add(toProductDTO(cartItem));
+        }
+        return new CartDTO(cart.getCartId(), Money.toMajor(cart.getTotalPrice()), products);
+    }
+
+    public CartDTO toDTO(CartState cart, Function<Long, ProductDTO> products) {
+        List<ProductDTO> productDTOs = new ArrayList<>(cart.getLines().size());
+        for (CartLine line : cart.getLines()) {
+            ProductDTO product = products.apply(line.getProductId());
+            if (product != null) {
+                productDTOs.add(withCartQuantity(product, line.getQuantity()));
+            }
+        }
+        return new CartDTO(cart.getCartId(), Money.toMajor(cart.getTotalPrice()), productDTOs);
+    }
+
+    // Copies, because the product DTO may be a shared cached instance.
+    private ProductDTO withCartQuantity(ProductDTO product, Integer quantity) {
+        return new ProductDTO(product.getProductId(), product.getProductName(), product.getImage(),
+                product.getThumbnailImage(), product.getDescription(), quantity, product.getPrice(),
+                product.getDiscount(), product.getSpecialPrice(), product.getCategoryId());
+    }
+
+    // Cart lines are rendered as products whose quantity is the quantity in the cart, not the stock level.
+    public ProductDTO toProductDTO(CartItem cartItem) {
+        ProductDTO productDTO = productMapper.toDTO(cartItem.getProduct());
+        productDTO.setQuantity(cartItem.getQuantity());
+        return productDTO;
+    }
+}
@@ -0,0 +1,67 @@
+package com.ecommerce.sbecom.mapper;
+
+import com.ecommerce.sbecom.entity.Address;
+import com.ecommerce.sbecom.entity.Order;
+import com.ecommerce.sbecom.entity.OrderItem;
+import com.ecommerce.sbecom.entity.Payment;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.payload.OrderDTO;
+import com.ecommerce.sbecom.payload.OrderItemDTO;
+import com.ecommerce.sbecom.payload.PaymentDTO;
+import com.ecommerce.sbecom.util.Money;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class OrderMapper {
+
+    private final ProductMapper productMapper;
+
+    public OrderMapper(ProductMapper productMapper) {
+        this.productMapper = productMapper;
+    }
+
+    public OrderDTO toDTO(Order order, List<OrderItem> orderItems) {
+        List<OrderItemDTO> orderItemDTOs = new ArrayList<>(orderItems.size());
+        for (OrderItem orderItem : orderItems) {
+            orderItemDTOs.add(toItemDTO(orderItem));
+        }
+
+        Address address = order.getAddress();
+        return new OrderDTO(
+                order.getOrderId(),
+                order.getEmail(),
+                orderItemDTOs,
+                order.getOrderDate(),
+                toPaymentDTO(order.getPayment()),
+                order.getTotalAmount() != null ? Money.toMajor(order.getTotalAmount()) : null,
+                order.getOrderStatus(),
+                address != null ? address.getAddressId() : null);
+    }
+
+    public OrderItemDTO toItemDTO(OrderItem orderItem) {
+        Product product = orderItem.getProduct();
+        return new OrderItemDTO(
+                orderItem.getOrderItemId(),
+                product != null ? productMapper.toDTO(product) : null,
+                orderItem.getQuantity(),
+                orderItem.getDiscount(),
+                Money.toMajor(orderItem.getOrderedProductPrice()),
+                product != null ? product.getProductId() : null);
+    }
+
+    public PaymentDTO toPaymentDTO(Payment payment) {
+        if (payment == null) {
+            return null;
+        }
+        return new PaymentDTO(
+                payment.getPaymentId(),
+                payment.getPaymentMethod(),
+                payment.getPgPaymentId(),
+                payment.getPgStatus(),
+                payment.getPgResponseMessage(),
+                payment.getPgName());
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.sbecom.mapper;
+
+import com.ecommerce.sbecom.entity.Category;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.util.Money;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductMapper {
+
+    public ProductDTO toDTO(Product product) {
+        Category category = product.getCategory();
+        return new ProductDTO(
+                product.getProductId(),
+                product.getProductName(),
+                product.getImage(),
+                product.getThumbnailImage(),
+                product.getDescription(),
+                product.getQuantity(),
+                Money.toMajor(product.getPrice()),
+                product.getDiscount(),
+                Money.toMajor(product.getSpecialPrice()),
+                category != null ? category.getCategoryId() : null);
+    }
+
+    public Product toEntity(ProductDTO productDTO) {
+        Product product = new Product();
+        product.setProductId(productDTO.getProductId());
+        product.setProductName(productDTO.getProductName());
+        product.setImage(productDTO.getImage());
+        product.setThumbnailImage(productDTO.getThumbnailImage());
+        product.setDescription(productDTO.getDescription());
+        product.setQuantity(productDTO.getQuantity());
+        product.setPrice(Money.toMinor(productDTO.getPrice()));
+        product.setDiscount(productDTO.getDiscount());
+        product.setSpecialPrice(Money.toMinor(productDTO.getSpecialPrice()));
+        return product;
+    }
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.sbecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryReservationDTO {
+    private Long reservationId;
+    private Long productId;
+    private Integer quantity;
+    private Instant expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.ecommerce.sbecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderHistoryResponse {
+    private List<OrderDTO> content;
+    private Integer pageSize;
+    private boolean lastPage;
+    private String nextCursor;
+}
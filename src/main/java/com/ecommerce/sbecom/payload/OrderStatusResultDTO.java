@@ -0,0 +1,15 @@
+package com.ecommerce.sbecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResultDTO {
+    private Long orderId;
+    // UPDATED, NOT_FOUND or INVALID_STATUS
+    private String result;
+    private String orderStatus;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.sbecom.payload;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdateRequest {
+    @NotEmpty
+    private List<Long> orderIds;
+}
@@ -0,0 +1,21 @@
+package com.ecommerce.sbecom.payload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilterDTO {
+    private String query;
+    private Long categoryId;
+    private Long sellerId;
+    private Double minPrice;
+    private Double maxPrice;
+    private Double minSpecialPrice;
+    private Double maxSpecialPrice;
+    private Double minDiscount;
+    private Boolean inStock;
+    private Boolean createdByMe = false;
+}
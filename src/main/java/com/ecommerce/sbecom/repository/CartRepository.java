@@ -1,17 +1,61 @@
 package com.ecommerce.sbecom.repository;
 
 import com.ecommerce.sbecom.entity.Cart;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.user.email = ?1")
     Cart findCartByEmail(String email);
 
-    @Query("SELECT c FROM Cart c WHERE c.user.email = ?1 AND c.id = ?2")
-    Cart findCartByEmailAndCartId(String emailId, Long cartId);
+    // The *WithItems reads load the cart, its lines and their products in a single round trip.
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.user.email = ?1")
+    Cart findCartWithItemsByEmail(String email);
+
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.user.userId = ?1")
+    Cart findCartWithItemsByUserId(Long userId);
+
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product " +
+            "WHERE c.user.email = ?1 AND c.cartId = ?2")
+    Cart findCartWithItemsByEmailAndCartId(String emailId, Long cartId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.user.userId = ?1")
+    Cart lockCartByUserId(Long userId);
+
+    @Query("SELECT c.user.userId, c.generation FROM Cart c WHERE c.user.userId IN ?1")
+    List<Object[]> findGenerationsByUserIdIn(Collection<Long> userIds);
+
+    // Paging a collection fetch join would happen in memory, so a page of ids is selected first.
+    @Query("SELECT c.cartId FROM Cart c")
+    Page<Long> findCartIds(Pageable pageable);
+
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.cartId IN ?1")
+    List<Cart> findAllWithItemsByCartIdIn(Collection<Long> cartIds);
+
+    // One flat row per cart line, ordered so each cart's lines are adjacent. MIN_VALUE makes MySQL
+    // Connector/J stream rows instead of buffering the whole result set.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"))
+    @Query("SELECT c.cartId, c.totalPrice, ci.quantity, p.productId, p.productName, p.image, p.thumbnailImage, " +
+            "p.description, p.price, p.discount, p.specialPrice, p.category.categoryId " +
+            "FROM Cart c LEFT JOIN c.cartItems ci LEFT JOIN ci.product p ORDER BY c.cartId, ci.cartItemId")
+    Stream<Object[]> streamCartLines();
+
+    @Modifying
+    @Query("UPDATE Cart c SET c.totalPrice = 0 WHERE c.cartId = ?1")
+    void resetTotalPrice(Long cartId);
 
     @Query("SELECT c FROM Cart c JOIN FETCH c.cartItems ci JOIN FETCH ci.product p WHERE p.id = ?1")
     List<Cart> findCartsByProductId(Long productId);
@@ -2,9 +2,16 @@ package com.ecommerce.sbecom.repository;
 
 import com.ecommerce.sbecom.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CategoryRepository extends JpaRepository<Category, Long> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
     Optional<Category> findByCategoryName(String categoryName);
+
+    @Query("SELECT c.categoryId FROM categories c WHERE c.categoryId IN ?1")
+    List<Long> findExistingIds(Collection<Long> categoryIds);
 }
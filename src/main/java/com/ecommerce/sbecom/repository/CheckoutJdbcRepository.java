@@ -0,0 +1,80 @@
+package com.ecommerce.sbecom.repository;
+
+import com.ecommerce.sbecom.entity.CartItem;
+import com.ecommerce.sbecom.util.Money;
+import com.ecommerce.sbecom.util.TimeOrderedIds;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Set-based statements for checkout. Each method sends one JDBC batch regardless of cart size
+ * (MySQL folds it into a single multi-row statement when the URL sets rewriteBatchedStatements=true).
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+@Repository
+public class CheckoutJdbcRepository {
+
+    // Guarded so stock can never go negative: a row that lacks the units is simply not updated.
+    private static final String ADJUST_STOCK =
+            "UPDATE products SET quantity = quantity + ? WHERE product_id = ? AND quantity + ? >= 0";
+    private static final String INSERT_ORDER_ITEM =
+            "INSERT INTO order_items (order_item_id, order_id, product_id, quantity, discount, ordered_product_price) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CheckoutJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Applies signed stock changes (negative takes units out, positive puts them back) and returns the
+     * ids of products that did not have enough for a negative change. Every row is touched in one pass
+     * in product id order, so transactions that both take and return stock still lock rows in the same
+     * global order as every other checkout. Changes applied before a shortage are not undone here;
+     * callers throw to roll the transaction back.
+     */
+    public List<Long> adjustStock(SortedMap<Long, Integer> deltasByProduct) {
+        if (deltasByProduct.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Integer>> rows = new ArrayList<>(deltasByProduct.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(ADJUST_STOCK, rows, rows.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+            ps.setInt(3, entry.getValue());
+        });
+
+        List<Long> shortages = new ArrayList<>();
+        int row = 0;
+        for (int[] batch : counts) {
+            for (int updated : batch) {
+                if (updated == 0) {
+                    shortages.add(rows.get(row).getKey());
+                }
+                row++;
+            }
+        }
+        return shortages;
+    }
+
+    public void restock(SortedMap<Long, Integer> quantitiesByProduct) {
+        adjustStock(quantitiesByProduct);
+    }
+
+    public void insertOrderItems(Long orderId, List<CartItem> cartItems) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_ITEM, cartItems, cartItems.size(), (ps, item) -> {
+            ps.setLong(1, TimeOrderedIds.next());
+            ps.setLong(2, orderId);
+            ps.setLong(3, item.getProduct().getProductId());
+            ps.setInt(4, item.getQuantity());
+            ps.setDouble(5, item.getDiscount());
+            ps.setDouble(6, Money.toMajor(item.getProductPrice()));
+        });
+    }
+}
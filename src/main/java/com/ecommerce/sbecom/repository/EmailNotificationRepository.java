@@ -0,0 +1,24 @@
+package com.ecommerce.sbecom.repository;
+
+import com.ecommerce.sbecom.entity.EmailNotification;
+import com.ecommerce.sbecom.entity.NotificationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailNotificationRepository extends JpaRepository<EmailNotification, Long> {
+    // SKIP LOCKED (lock timeout -2) lets several application nodes drain the outbox without
+    // handing the same notification to two of them.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT n FROM EmailNotification n WHERE n.status IN ?1 AND n.nextAttemptAt <= ?2 ORDER BY n.nextAttemptAt")
+    List<EmailNotification> findDueForUpdate(Collection<NotificationStatus> statuses, Instant now, Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.ecommerce.sbecom.repository;
+
+import com.ecommerce.sbecom.entity.InventoryReservation;
+import com.ecommerce.sbecom.entity.ReservationStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface InventoryReservationRepository extends JpaRepository<InventoryReservation, Long> {
+    // Locked so checkout and the expiry job can never both settle the same reservation.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM InventoryReservation r WHERE r.email = ?1 AND r.status = ?2")
+    List<InventoryReservation> findByEmailAndStatusForUpdate(String email, ReservationStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM InventoryReservation r WHERE r.status = ?1 AND r.expiresAt <= ?2 ORDER BY r.expiresAt")
+    List<InventoryReservation> findExpiredForUpdate(ReservationStatus status, Instant now, Pageable pageable);
+}
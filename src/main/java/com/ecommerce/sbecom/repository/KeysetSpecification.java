@@ -0,0 +1,45 @@
+package com.ecommerce.sbecom.repository;
+
+import com.ecommerce.sbecom.util.KeysetCursor;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class KeysetSpecification {
+
+    private KeysetSpecification() {
+        throw new UnsupportedOperationException("Cannot instantiate specification class");
+    }
+
+    public static Sort sort(String sortBy, String idAttribute, boolean ascending) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, sortBy);
+        return sortBy.equals(idAttribute) ? sort : sort.and(Sort.by(direction, idAttribute));
+    }
+
+    // Rows strictly after the cursor in (sortBy, id) order. NULL sort keys come first when
+    // ascending and last when descending, matching MySQL's ordering.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static <T> Specification<T> after(KeysetCursor cursor, String sortBy, String idAttribute, boolean ascending) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get(idAttribute);
+            Predicate idAfter = ascending ? cb.greaterThan(id, cursor.getId()) : cb.lessThan(id, cursor.getId());
+            if (sortBy.equals(idAttribute)) {
+                return idAfter;
+            }
+
+            Path<Comparable> key = root.get(sortBy);
+            if (cursor.hasNullValue()) {
+                Predicate sameNullKey = cb.and(cb.isNull(key), idAfter);
+                return ascending ? cb.or(cb.isNotNull(key), sameNullKey) : sameNullKey;
+            }
+
+            Comparable value = (Comparable) cursor.getValue(key.getJavaType());
+            Predicate keyAfter = ascending ? cb.greaterThan(key, value) : cb.lessThan(key, value);
+            Predicate sameKey = cb.and(cb.equal(key, value), idAfter);
+            Predicate after = cb.or(keyAfter, sameKey);
+            return ascending ? after : cb.or(after, cb.isNull(key));
+        };
+    }
+}
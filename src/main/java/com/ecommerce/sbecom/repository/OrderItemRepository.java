@@ -3,9 +3,18 @@ package com.ecommerce.sbecom.repository;
 import com.ecommerce.sbecom.entity.Order;
 import com.ecommerce.sbecom.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrder(Order order);
+
+    @Query("SELECT oi FROM OrderItem oi JOIN FETCH oi.product WHERE oi.order.orderId = ?1 ORDER BY oi.orderItemId")
+    List<OrderItem> findWithProductByOrderId(Long orderId);
+
+    // Rows of (productId, total quantity); the products themselves are never loaded.
+    @Query("SELECT oi.product.productId, SUM(oi.quantity) FROM OrderItem oi WHERE oi.order.orderId = ?1 " +
+            "GROUP BY oi.product.productId")
+    List<Object[]> sumQuantitiesByProduct(Long orderId);
 }
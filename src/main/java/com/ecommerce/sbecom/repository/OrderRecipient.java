@@ -0,0 +1,4 @@
+package com.ecommerce.sbecom.repository;
+
+public record OrderRecipient(Long orderId, String email, String firstName) {
+}
@@ -1,7 +1,48 @@
 package com.ecommerce.sbecom.repository;
 
+import com.ecommerce.sbecom.entity.EmailType;
 import com.ecommerce.sbecom.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    // Newest first; both history queries seek along idx_orders_email_date_id instead of sorting the user's orders.
+    @Query("SELECT o.orderId FROM Order o WHERE o.email = ?1 ORDER BY o.orderDate DESC, o.orderId DESC")
+    List<Long> findHistoryIds(String email, Pageable pageable);
+
+    @Query("SELECT o.orderId FROM Order o WHERE o.email = ?1 " +
+            "AND (o.orderDate < ?2 OR (o.orderDate = ?2 AND o.orderId < ?3)) " +
+            "ORDER BY o.orderDate DESC, o.orderId DESC")
+    List<Long> findHistoryIdsAfter(String email, LocalDate orderDate, Long orderId, Pageable pageable);
+
+    // Paging a collection fetch join would happen in memory, so a page of ids is selected first.
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems oi LEFT JOIN FETCH oi.product " +
+            "LEFT JOIN FETCH o.payment LEFT JOIN FETCH o.address WHERE o.orderId IN ?1 ORDER BY oi.orderItemId")
+    List<Order> findAllWithItemsByOrderIdIn(Collection<Long> orderIds);
+
+    // Locks the rows so the guarded update below changes exactly the orders reported as updated.
+    @Query(value = "SELECT order_id, order_status FROM orders WHERE order_id IN ?1 FOR UPDATE", nativeQuery = true)
+    List<Object[]> lockStatuses(Collection<Long> orderIds);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.orderStatus = ?3, o.emailType = ?4 WHERE o.orderId IN ?1 AND o.orderStatus = ?2")
+    int transitionStatus(Collection<Long> orderIds, String fromStatus, String toStatus, EmailType emailType);
+
+    // Orders marked shipped or delivered before the status was kept only recorded it in email_type.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.orderStatus = ?3 WHERE o.orderStatus = ?1 AND o.emailType = ?2")
+    int backfillLegacyStatus(String fromStatus, EmailType emailType, String toStatus);
+
+    @Query("SELECT new com.ecommerce.sbecom.repository.OrderRecipient(o.orderId, u.email, u.firstName) " +
+            "FROM Order o JOIN User u ON u.email = o.email WHERE o.orderId IN ?1")
+    List<OrderRecipient> findRecipients(Collection<Long> orderIds);
 }
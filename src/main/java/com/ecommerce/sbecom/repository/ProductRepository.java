@@ -1,17 +1,51 @@
 package com.ecommerce.sbecom.repository;
 
-import com.ecommerce.sbecom.entity.Category;
+import com.ecommerce.sbecom.cart.ProductPrice;
 import com.ecommerce.sbecom.entity.Product;
-import com.ecommerce.sbecom.entity.User;
-import org.springframework.data.domain.Page;
+import com.ecommerce.sbecom.search.ProductSearchDocument;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-    Page<Product> findByProductNameLikeIgnoreCase(String query, Pageable pageable);
+import java.util.Collection;
+import java.util.List;
 
-    Page<Product> findByUser(User user, Pageable pageable);
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    @Query("SELECT new com.ecommerce.sbecom.search.ProductSearchDocument(p.productId, p.productName, p.description) " +
+            "FROM Product p WHERE p.productId > ?1 ORDER BY p.productId ASC")
+    List<ProductSearchDocument> findSearchDocumentsAfter(Long productId, Pageable pageable);
 
-    Page<Product> findByCategory(Category category, Pageable pageable);
+    @Query("SELECT p.productId FROM Product p WHERE p.productId IN ?1")
+    List<Long> findExistingIds(Collection<Long> productIds);
+
+    @Query("SELECT new com.ecommerce.sbecom.cart.ProductPrice(p.productId, p.specialPrice, p.discount, p.priceVersion) " +
+            "FROM Product p WHERE p.productId IN ?1")
+    List<ProductPrice> findPrices(Collection<Long> productIds);
+
+    boolean existsByCategoryCategoryIdAndProductNameKey(Long categoryId, String productNameKey);
+
+    boolean existsByCategoryCategoryIdAndProductNameKeyAndProductIdNot(Long categoryId, String productNameKey, Long productId);
+
+    // Returns [categoryId, name key] pairs; callers match exact pairs, the IN lists only narrow the index scan.
+    @Query("SELECT p.category.categoryId, p.productNameKey FROM Product p " +
+            "WHERE p.category.categoryId IN ?1 AND p.productNameKey IN ?2")
+    List<Object[]> findCategoryAndNameKeys(Collection<Long> categoryIds, Collection<String> nameKeys);
+
+    // Rows created before product_name_key existed, as [productId, categoryId, productName].
+    @Query("SELECT p.productId, p.category.categoryId, p.productName FROM Product p " +
+            "WHERE p.productNameKey IS NULL AND p.productId > ?1 ORDER BY p.productId")
+    List<Object[]> findUnkeyedAfter(Long productId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.productNameKey = ?2 WHERE p.productId = ?1 AND p.productNameKey IS NULL")
+    int setProductNameKey(Long productId, String productNameKey);
+
+    // Guarded on the source image so a slow thumbnail never overwrites the variant of a newer upload.
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.thumbnailImage = ?3 WHERE p.productId = ?1 AND p.image = ?2")
+    int updateThumbnailImage(Long productId, String image, String thumbnailImage);
 }
@@ -0,0 +1,62 @@
+package com.ecommerce.sbecom.repository;
+
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.payload.ProductFilterDTO;
+import com.ecommerce.sbecom.util.Money;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+public final class ProductSpecification {
+
+    private ProductSpecification() {
+        throw new UnsupportedOperationException("Cannot instantiate specification class");
+    }
+
+    // Structured filters only; the text query is resolved separately through the search index.
+    public static Specification<Product> getSpecification(ProductFilterDTO filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            if (filter.getCategoryId() != null) {
+                predicates.add(cb.equal(root.get("category").get("categoryId"), filter.getCategoryId()));
+            }
+            if (filter.getSellerId() != null) {
+                predicates.add(cb.equal(root.get("user").get("userId"), filter.getSellerId()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Long>get("price"), Money.toMinor(filter.getMinPrice())));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Long>get("price"), Money.toMinor(filter.getMaxPrice())));
+            }
+            if (filter.getMinSpecialPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.<Long>get("specialPrice"), Money.toMinor(filter.getMinSpecialPrice())));
+            }
+            if (filter.getMaxSpecialPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.<Long>get("specialPrice"), Money.toMinor(filter.getMaxSpecialPrice())));
+            }
+            if (filter.getMinDiscount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("discount"), filter.getMinDiscount()));
+            }
+            if (Boolean.TRUE.equals(filter.getInStock())) {
+                predicates.add(cb.greaterThan(root.get("quantity"), 0));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    public static Specification<Product> idIn(Collection<Long> productIds) {
+        return (root, query, cb) -> root.get("productId").in(productIds);
+    }
+
+    public static Specification<Product> nameContains(String text) {
+        String pattern = "%" + text.toLowerCase(Locale.ROOT) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("productName")), pattern);
+    }
+}
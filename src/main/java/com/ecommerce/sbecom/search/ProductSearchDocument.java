@@ -0,0 +1,4 @@
+package com.ecommerce.sbecom.search;
+
+public record ProductSearchDocument(Long productId, String productName, String description) {
+}
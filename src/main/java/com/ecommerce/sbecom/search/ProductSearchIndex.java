@@ -0,0 +1,338 @@
+package com.ecommerce.sbecom.search;
+
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product names and descriptions. Terms are lower-cased
+ * and every query term also matches as a prefix, so "lap" finds "laptop" while typing.
+ * Results are ranked by term weight (name hits count more than description hits),
+ * scaled by how rare the matched term is.
+ *
+ * <p>Request writes are applied once their transaction commits, so a rollback never changes search
+ * results. The index is per node and only sees this node's writes directly; a full rebuild runs at
+ * startup and then every {@code project.search.resync-interval-ms} to pick up products added, edited or
+ * deleted through other instances. A rebuild fills a fresh index from the database and swaps it in;
+ * products written by requests meanwhile are newer than the rebuild's snapshot, so their live entries
+ * are carried over instead.
+ */
+@Slf4j
+@Component
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final double PREFIX_MATCH_BOOST = 0.5;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private static final Comparator<Map.Entry<Long, Double>> BY_RELEVANCE =
+            Map.Entry.<Long, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    // Replaced wholesale by a rebuild. Guarded by the read/write lock.
+    private Terms current = new Terms();
+    // Products indexed or removed by requests while a rebuild is running; null otherwise. Guarded by the write lock.
+    private Set<Long> writtenDuringRebuild;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${project.search.resync-interval-ms:300000}",
+            fixedDelayString = "${project.search.resync-interval-ms:300000}")
+    public void rebuild() {
+        if (!rebuildLock.tryLock()) {
+            return;
+        }
+        try {
+            rebuildAndSwap();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildAndSwap() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            writtenDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // Only this thread sees the fresh index until it is swapped in, so it is filled without the lock.
+        Terms fresh = new Terms();
+        boolean complete = false;
+        long lastId = 0L;
+        List<ProductSearchDocument> batch;
+        try {
+            do {
+                batch = productRepository.findSearchDocumentsAfter(lastId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                for (ProductSearchDocument document : batch) {
+                    fresh.put(document.productId(), weigh(document));
+                    lastId = document.productId();
+                }
+            } while (batch.size() == REBUILD_BATCH_SIZE);
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    writtenDuringRebuild.forEach(productId -> fresh.copyFrom(current, productId));
+                    current = fresh;
+                }
+                writtenDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        ready = true;
+        log.info("Indexed {} products for search in {} ms", fresh.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Product product) {
+        index(new ProductSearchDocument(product.getProductId(), product.getProductName(), product.getDescription()));
+    }
+
+    // The document is taken now; it reaches the index once the caller's transaction commits.
+    public void index(ProductSearchDocument document) {
+        Map<String, Integer> weights = weigh(document);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                markWrittenDuringRebuild(document.productId());
+                current.put(document.productId(), weights);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void remove(Long productId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                markWrittenDuringRebuild(productId);
+                current.remove(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private static void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                write.run();
+            }
+        });
+    }
+
+    public SearchResult search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+
+        Map<Long, Double> scores;
+        lock.readLock().lock();
+        try {
+            scores = matchAll(terms);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new SearchResult(topRanked(scores, offset, limit), scores.size());
+    }
+
+    public Set<Long> matchingIds(String query) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return Set.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return new HashSet<>(matchAll(terms).keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every term must match; the candidate set of the rarest term is intersected with the rest.
+    private Map<Long, Double> matchAll(Set<String> terms) {
+        List<Map<Long, Double>> perTerm = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Map<Long, Double> matches = matchTerm(term);
+            if (matches.isEmpty()) {
+                return Map.of();
+            }
+            perTerm.add(matches);
+        }
+        perTerm.sort(Comparator.comparingInt(Map::size));
+
+        Map<Long, Double> scores = new HashMap<>(perTerm.get(0));
+        for (int i = 1; i < perTerm.size() && !scores.isEmpty(); i++) {
+            Map<Long, Double> matches = perTerm.get(i);
+            scores.entrySet().removeIf(entry -> !matches.containsKey(entry.getKey()));
+            scores.replaceAll((productId, score) -> score + matches.get(productId));
+        }
+        return scores;
+    }
+
+    private Map<Long, Double> matchTerm(String term) {
+        Map<Long, Double> matches = new HashMap<>();
+        int documentCount = Math.max(current.size(), 1);
+        for (Map.Entry<String, Map<Long, Integer>> posting :
+                current.postings.subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+            double boost = posting.getKey().equals(term) ? 1.0 : PREFIX_MATCH_BOOST;
+            double idf = Math.log(1.0 + (double) documentCount / posting.getValue().size());
+            posting.getValue().forEach((productId, weight) ->
+                    matches.merge(productId, weight * boost * idf, Math::max));
+        }
+        return matches;
+    }
+
+    // Bounded heap keeps only offset + limit candidates instead of sorting every match.
+    private List<Long> topRanked(Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        if (scores.size() <= offset || limit <= 0) {
+            return List.of();
+        }
+
+        PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Math.min(wanted, scores.size()) + 1, BY_RELEVANCE);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(entry);
+            if (heap.size() > wanted) {
+                heap.poll();
+            }
+        }
+
+        List<Map.Entry<Long, Double>> ranked = new ArrayList<>(heap);
+        ranked.sort(BY_RELEVANCE.reversed());
+        List<Long> productIds = new ArrayList<>(limit);
+        for (int i = offset; i < ranked.size(); i++) {
+            productIds.add(ranked.get(i).getKey());
+        }
+        return productIds;
+    }
+
+    private static Map<String, Integer> weigh(ProductSearchDocument document) {
+        Map<String, Integer> weights = new HashMap<>();
+        for (String term : tokenize(document.productName())) {
+            weights.merge(term, NAME_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(document.description())) {
+            weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum);
+        }
+        return weights;
+    }
+
+    // Caller holds the write lock.
+    private void markWrittenDuringRebuild(Long productId) {
+        if (writtenDuringRebuild != null) {
+            writtenDuringRebuild.add(productId);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // Postings plus the reverse map needed to remove a product's old terms.
+    private static final class Terms {
+        private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+
+        int size() {
+            return termsByProduct.size();
+        }
+
+        void put(Long productId, Map<String, Integer> weights) {
+            remove(productId);
+            weights.forEach((term, weight) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(productId, weight));
+            termsByProduct.put(productId, new HashSet<>(weights.keySet()));
+        }
+
+        void remove(Long productId) {
+            Set<String> terms = termsByProduct.remove(productId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Map<Long, Integer> posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(productId);
+                    if (posting.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        // Makes this index hold exactly what the other one holds for the product, including nothing.
+        void copyFrom(Terms other, Long productId) {
+            Set<String> otherTerms = other.termsByProduct.get(productId);
+            if (otherTerms == null) {
+                remove(productId);
+                return;
+            }
+            Map<String, Integer> weights = new HashMap<>();
+            otherTerms.forEach(term -> weights.put(term, other.postings.get(term).get(productId)));
+            put(productId, weights);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.sbecom.search;
+
+import java.util.List;
+
+public record SearchResult(List<Long> productIds, long totalMatches) {
+}
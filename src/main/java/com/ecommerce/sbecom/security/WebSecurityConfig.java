@@ -99,7 +99,8 @@ public class WebSecurityConfig implements WebMvcConfigurer {
                 "/swagger-resources/**",
                 "/configuration/security",
                 "/swagger-ui.html",
-                "/webjars/**"));
+                "/webjars/**",
+                "/images/**"));
     }
 
     @Bean
@@ -1,6 +1,6 @@
 package com.ecommerce.sbecom.security.jwt;
 
-import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.security.service.UserDetailsImpl;
 import com.ecommerce.sbecom.security.service.UserDetailsServiceImpl;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
@@ -14,7 +14,6 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -42,18 +41,25 @@ public class AuthTokenFilter extends OncePerRequestFilter {
 
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                Claims claims = jwtUtils.getAllClaimsFromJwtToken(jwt);
+            Claims claims = jwt != null ? jwtUtils.parseAndValidateJwtToken(jwt) : null;
+            if (claims != null) {
                 String username = claims.getSubject();
 
-                List<String> roles = claims.get("roles", List.class);
+                List<String> roles = claims.get(JwtUtils.ROLES_CLAIM, List.class);
 
                 List<GrantedAuthority> authorities = roles.stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
 
-                UserDetails userDetails = new org.springframework.security.core.userdetails.User(
-                        username, "", authorities);
+                // Identity comes straight from the signed claims, so controllers and AuthUtil can
+                // resolve the user id and email without a database round-trip.
+                Number userId = claims.get(JwtUtils.USER_ID_CLAIM, Number.class);
+                UserDetailsImpl userDetails = new UserDetailsImpl(
+                        userId != null ? userId.longValue() : null,
+                        username,
+                        claims.get(JwtUtils.EMAIL_CLAIM, String.class),
+                        "",
+                        authorities);
 
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails,null, userDetails.getAuthorities());
@@ -71,6 +77,12 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // Images are public and served with long-lived cache headers; token parsing would only add latency.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/images/");
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String jwtFromCookie = jwtUtils.getJwtFromCookies(request);
         logger.debug("jwtFromCookie: {}", jwtFromCookie);
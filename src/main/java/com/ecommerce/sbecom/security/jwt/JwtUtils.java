@@ -5,6 +5,7 @@ import com.ecommerce.sbecom.security.service.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -17,15 +18,20 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.util.WebUtils;
 
 import javax.crypto.SecretKey;
-import java.security.Key;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String EMAIL_CLAIM = "email";
+    public static final String ROLES_CLAIM = "roles";
+
     @Value("${spring.app.jwtSecret}")
     private String jwtSecret;
 
@@ -35,9 +41,28 @@ public class JwtUtils {
     @Value("${spring.app.jwtCookieName}")
     private String jwtCookie;
 
+    @Value("${spring.app.jwtCacheSize:10000}")
+    private int jwtCacheSize;
+
     @Autowired
     private UserRepository userRepository;
 
+    private SecretKey key;
+
+    private JwtParser jwtParser;
+
+    // Read on every authenticated request, so lookups must not serialise on a lock.
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    // The key and parser are immutable and thread-safe, so they are built once instead of per request.
+    @PostConstruct
+    void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        jwtParser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+    }
+
     public String getJwtFromCookies(HttpServletRequest request) {
         Cookie cookie = WebUtils.getCookie(request, jwtCookie);
         if (cookie != null) {
@@ -71,33 +96,42 @@ public class JwtUtils {
 
         return Jwts.builder()
                 .subject(userPrincipal.getUsername())
-                .claim("roles", roles)
+                .claim(USER_ID_CLAIM, userPrincipal.getId())
+                .claim(EMAIL_CLAIM, userPrincipal.getEmail())
+                .claim(ROLES_CLAIM, roles)
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key())
+                .signWith(key)
                 .compact();
     }
 
     public Claims getAllClaimsFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith((SecretKey) key())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
+    // Verifies the signature once and returns the claims, or null when the token is not acceptable.
+    // Recently verified tokens are served from a bounded cache until they expire. The token string itself
+    // is the key: hashing and comparing it costs far less than the decode, JSON parse and HMAC it skips.
+    // When the cache is full and nothing in it has expired, new tokens are simply verified every time.
+    public Claims parseAndValidateJwtToken(String authToken) {
+        if (authToken == null || authToken.isBlank()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(authToken);
+        if (cached != null) {
+            if (now < cached.expiresAtMillis()) {
+                return cached.claims();
+            }
+            verifiedTokens.remove(authToken, cached);
+        }
 
-    public boolean validateJwtToken(String authToken) {
         try {
-            System.out.println("Validate");
-            Jwts.parser()
-                    .verifyWith((SecretKey) key()).
-                    build().
-                    parseSignedClaims(authToken);
-            return true;
+            Claims claims = getAllClaimsFromJwtToken(authToken);
+            remember(authToken, claims, now);
+            return claims;
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         }
@@ -110,6 +144,31 @@ public class JwtUtils {
         catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        catch (JwtException e) {
+            logger.error("JWT token is invalid: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private void remember(String authToken, Claims claims, long now) {
+        if (verifiedTokens.size() >= jwtCacheSize) {
+            verifiedTokens.values().removeIf(token -> now >= token.expiresAtMillis());
+            if (verifiedTokens.size() >= jwtCacheSize) {
+                return;
+            }
+        }
+        Date expiration = claims.getExpiration();
+        long expiresAt = now + jwtExpirationMs;
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        verifiedTokens.put(authToken, new VerifiedToken(claims, expiresAt));
+    }
+
+    public boolean validateJwtToken(String authToken) {
+        return parseAndValidateJwtToken(authToken) != null;
+    }
+
+    private record VerifiedToken(Claims claims, long expiresAtMillis) {
     }
 }
@@ -2,23 +2,30 @@ package com.ecommerce.sbecom.service;
 
 import com.ecommerce.sbecom.payload.CartDTO;
 import com.ecommerce.sbecom.payload.CartItemDTO;
+import com.ecommerce.sbecom.payload.CartResponse;
 import jakarta.transaction.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface CartService {
     CartDTO addProductToCart(Long productId, Integer quantity);
 
-    List<CartDTO> getAllCarts();
+    CartResponse getAllCarts(Integer pageNumber, Integer pageSize, String sortOrder);
+
+    void streamAllCarts(OutputStream outputStream) throws IOException;
 
     CartDTO getCart(String emailId, Long cartId);
 
+    CartDTO getUserCart(Long userId);
+
     @Transactional
     CartDTO updateProductQuantityInCart(Long productId, Integer quantity);
 
-    String deleteProductFromCart(Long cartId, Long productId);
+    String removeProductFromCart(Long cartId, Long productId);
 
-    void updateProductInCarts(Long cartId, Long productId);
+    String deleteProductFromCart(Long cartId, Long productId);
 
     String createOrUpdateCartWithItems(List<CartItemDTO> cartItems);
 }
\ No newline at end of file
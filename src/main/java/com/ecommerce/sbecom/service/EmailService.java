@@ -1,7 +1,11 @@
 package com.ecommerce.sbecom.service;
 
-import com.ecommerce.sbecom.entity.EmailType;
+import com.ecommerce.sbecom.entity.EmailNotification;
+
+import java.util.List;
+import java.util.Map;
 
 public interface EmailService {
-    void sendOrderConfirmation(String toEmail, String userName, String orderId, String totalAmount, String shippingAddress);
+    // Returns the failure reason for every notification that could not be delivered, keyed by notification id.
+    Map<Long, String> sendNotifications(List<EmailNotification> notifications);
 }
@@ -0,0 +1,16 @@
+package com.ecommerce.sbecom.service;
+
+import com.ecommerce.sbecom.entity.CartItem;
+import com.ecommerce.sbecom.payload.InventoryReservationDTO;
+
+import java.util.List;
+
+public interface InventoryService {
+    List<InventoryReservationDTO> reserveCart(String emailId);
+
+    void releaseReservations(String emailId);
+
+    void commitStock(String emailId, List<CartItem> cartItems);
+
+    int releaseExpiredReservations();
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.sbecom.service;
+
+import com.ecommerce.sbecom.entity.EmailType;
+import com.ecommerce.sbecom.entity.Order;
+import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.repository.OrderRecipient;
+
+import java.util.List;
+
+public interface NotificationService {
+    void queueOrderConfirmation(Order order, User user);
+
+    void queueOrderStatusChanges(EmailType emailType, List<OrderRecipient> recipients);
+}
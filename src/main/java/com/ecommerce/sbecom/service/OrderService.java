@@ -1,8 +1,12 @@
 package com.ecommerce.sbecom.service;
 
 import com.ecommerce.sbecom.payload.OrderDTO;
+import com.ecommerce.sbecom.payload.OrderHistoryResponse;
+import com.ecommerce.sbecom.payload.OrderStatusResultDTO;
 import jakarta.transaction.Transactional;
 
+import java.util.List;
+
 public interface OrderService {
     @Transactional
     OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod,
@@ -11,9 +15,15 @@ public interface OrderService {
 
     OrderDTO getOrderById(String emailId, Long orderId);
 
+    OrderHistoryResponse getOrderHistory(String emailId, Integer pageSize, String cursor);
+
     String cancelOrder(String emailId, Long orderId);
 
-    String markOrderShipped(String emailId, Long orderId);
+    String markOrderShipped(Long orderId);
+
+    String markOrderDelivered(Long orderId);
+
+    List<OrderStatusResultDTO> markOrdersShipped(List<Long> orderIds);
 
-    String markOrderDelivered(String emailId, Long orderId);
+    List<OrderStatusResultDTO> markOrdersDelivered(List<Long> orderIds);
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.ecommerce.sbecom.service;
+
+import com.ecommerce.sbecom.payload.ProductImportReport;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+public interface ProductImportService {
+    ProductImportReport importProducts(MultipartFile file) throws IOException;
+}
@@ -1,19 +1,20 @@
 package com.ecommerce.sbecom.service;
 
 import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.payload.CacheStatsDTO;
 import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductFilterDTO;
 import com.ecommerce.sbecom.payload.ProductResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.List;
 
 public interface ProductService {
     ProductDTO addProduct(ProductDTO productDTO);
 
-    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder, String keyword, Long categoryId, Boolean createdByMe, User currentUser);
-
-//    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy,
-//                                   String sortOrder, ProductFilterDTO filterDTO, User currentUser);
+    ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy,
+                                   String sortOrder, String cursor, ProductFilterDTO filterDTO, User currentUser);
 
     ProductDTO updateProduct(Long productId, ProductDTO product);
 
@@ -23,4 +24,6 @@ public interface ProductService {
 
     ProductDTO getProductById(Long productId);
 
+    List<CacheStatsDTO> getCacheStats();
+
 }
\ No newline at end of file
@@ -1,24 +1,46 @@
 package com.ecommerce.sbecom.service.impl;
 
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.cart.CartLine;
+import com.ecommerce.sbecom.cart.CartPriceReconciler;
+import com.ecommerce.sbecom.cart.CartState;
+import com.ecommerce.sbecom.cart.CartStore;
 import com.ecommerce.sbecom.entity.Cart;
 import com.ecommerce.sbecom.entity.CartItem;
-import com.ecommerce.sbecom.entity.Product;
 import com.ecommerce.sbecom.exception.APIException;
 import com.ecommerce.sbecom.exception.ResourceNotFoundException;
+import com.ecommerce.sbecom.mapper.CartMapper;
+import com.ecommerce.sbecom.mapper.ProductMapper;
 import com.ecommerce.sbecom.payload.CartDTO;
 import com.ecommerce.sbecom.payload.CartItemDTO;
+import com.ecommerce.sbecom.payload.CartResponse;
 import com.ecommerce.sbecom.payload.ProductDTO;
 import com.ecommerce.sbecom.repository.CartItemRepository;
 import com.ecommerce.sbecom.repository.CartRepository;
 import com.ecommerce.sbecom.repository.ProductRepository;
 import com.ecommerce.sbecom.service.CartService;
 import com.ecommerce.sbecom.util.AuthUtil;
+import com.ecommerce.sbecom.util.Money;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -37,117 +59,145 @@ public class CartServiceImpl implements CartService {
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CartMapper cartMapper;
 
-    @Override
-    public CartDTO addProductToCart(Long productId, Integer quantity) {
-        Cart cart  = createCart();
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+    @Autowired
+    private ProductMapper productMapper;
 
-        CartItem cartItem = cartItemRepository
-                .findCartItemByProductIdAndCartId(cart.getCartId(), productId);
+    @Autowired
+    private ProductCache productCache;
 
-        if (cartItem != null) {
-            throw new APIException("Product " + product.getProductName() + " already exists in the cart");
-        }
+    @Autowired
+    private CartStore cartStore;
 
-        if (product.getQuantity() == 0) {
-            throw new APIException(product.getProductName() + " is not available");
-        }
+    @Autowired
+    private CartPriceReconciler priceReconciler;
 
-        if (product.getQuantity() < quantity) {
-            throw new APIException("Please, make an order of the " + product.getProductName()
-                    + " less than or equal to the quantity " + product.getQuantity() + ".");
-        }
+    @Autowired
+    private ObjectMapper objectMapper;
 
-        CartItem newCartItem = new CartItem();
+    private final TransactionTemplate readOnlyTransaction;
 
-        newCartItem.setProduct(product);
-        newCartItem.setCart(cart);
-        newCartItem.setQuantity(quantity);
-        newCartItem.setDiscount(product.getDiscount());
-        newCartItem.setProductPrice(product.getSpecialPrice());
+    private static final int STREAM_FLUSH_INTERVAL = 100;
 
-        cartItemRepository.save(newCartItem);
+    public CartServiceImpl(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
-        product.setQuantity(product.getQuantity());
+    @Override
+    public CartDTO addProductToCart(Long productId, Integer quantity) {
+        ProductDTO product = getProductOrThrow(productId);
 
-        cart.setTotalPrice(cart.getTotalPrice() + (product.getSpecialPrice() * quantity));
+        return cartStore.update(authUtil.loggedInUserId(), cart -> {
+            if (cart.getLine(productId) != null) {
+                throw new APIException("Product " + product.getProductName() + " already exists in the cart");
+            }
 
-        cartRepository.save(cart);
+            if (product.getQuantity() == 0) {
+                throw new APIException(product.getProductName() + " is not available");
+            }
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+            if (product.getQuantity() < quantity) {
+                throw new APIException("Please, make an order of the " + product.getProductName()
+                        + " less than or equal to the quantity " + product.getQuantity() + ".");
+            }
 
-        List<CartItem> cartItems = cart.getCartItems();
+            long price = Money.toMinor(product.getSpecialPrice());
+            cart.putLine(new CartLine(productId, quantity, price, product.getDiscount(), 0L));
+            cart.setTotalPrice(cart.getTotalPrice() + (price * quantity));
 
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO map = modelMapper.map(item.getProduct(), ProductDTO.class);
-            map.setQuantity(item.getQuantity());
-            return map;
+            return toDTO(cart);
         });
-
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
     }
 
     @Override
-    public List<CartDTO> getAllCarts() {
-        List<Cart> carts = cartRepository.findAll();
+    public CartResponse getAllCarts(Integer pageNumber, Integer pageSize, String sortOrder) {
+        Pageable pageable = PageRequest.of(pageNumber, pageSize,
+                "asc".equalsIgnoreCase(sortOrder) ? Sort.by("cartId").ascending()
+                                                  : Sort.by("cartId").descending());
+        Page<Long> cartIds = cartRepository.findCartIds(pageable);
 
-        if (carts.isEmpty()) {
+        if (cartIds.getTotalElements() == 0) {
             throw new APIException("No cart exists");
         }
 
-        List<CartDTO> cartDTOs = carts.stream().map(cart -> {
-            CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-            List<ProductDTO> products = cart.getCartItems().stream().map(cartItem -> {
-                ProductDTO productDTO = modelMapper.map(cartItem.getProduct(), ProductDTO.class);
-                productDTO.setQuantity(cartItem.getQuantity()); // Set the quantity from CartItem
-                return productDTO;
-            }).collect(Collectors.toList());
-
-            cartDTO.setProducts(products);
+        Map<Long, Cart> cartsById = cartRepository.findAllWithItemsByCartIdIn(cartIds.getContent()).stream()
+                .collect(Collectors.toMap(Cart::getCartId, Function.identity()));
+        List<CartDTO> cartDTOs = cartIds.getContent().stream()
+                .map(cartsById::get)
+                .filter(Objects::nonNull)
+                .map(cartMapper::toDTO)
+                .toList();
 
-            return cartDTO;
+        return new CartResponse(cartDTOs, cartIds.getNumber(), cartIds.getSize(),
+                cartIds.getTotalElements(), cartIds.getTotalPages(), cartIds.isLast());
+    }
 
-        }).collect(Collectors.toList());
+    // Writes a JSON array one cart at a time from a streamed result set, so memory use does not grow with the number of carts.
+    @Override
+    public void streamAllCarts(OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<Object[]> lines = cartRepository.streamCartLines()) {
+                    CartDTO current = null;
+                    int written = 0;
+                    for (Object[] line : (Iterable<Object[]>) lines::iterator) {
+                        Long cartId = (Long) line[0];
+                        if (current == null || !current.getCartId().equals(cartId)) {
+                            if (current != null) {
+                                generator.writeObject(current);
+                                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                                    generator.flush();
+                                }
+                            }
+                            current = new CartDTO(cartId, Money.toMajor((Long) line[1]), new ArrayList<>());
+                        }
+                        if (line[3] != null) {
+                            current.getProducts().add(toProductDTO(line));
+                        }
+                    }
+                    if (current != null) {
+                        generator.writeObject(current);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
-        return cartDTOs;
+    private ProductDTO toProductDTO(Object[] line) {
+        return new ProductDTO((Long) line[3], (String) line[4], (String) line[5], (String) line[6], (String) line[7],
+                (Integer) line[2], Money.toMajor((Long) line[8]), (Double) line[9], Money.toMajor((Long) line[10]),
+                (Long) line[11]);
     }
 
     @Override
     public CartDTO getCart(String emailId, Long cartId) {
-        Cart cart = cartRepository.findCartByEmailAndCartId(emailId, cartId);
-        if (cart == null){
+        CartDTO cartDTO = getUserCart(authUtil.loggedInUserId());
+        if (!cartDTO.getCartId().equals(cartId)) {
             throw new ResourceNotFoundException("Cart", "cartId", cartId);
         }
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-        cart.getCartItems().forEach(c ->
-                c.getProduct().setQuantity(c.getQuantity()));
-        List<ProductDTO> products = cart.getCartItems().stream()
-                .map(p -> modelMapper.map(p.getProduct(), ProductDTO.class))
-                .toList();
-        cartDTO.setProducts(products);
         return cartDTO;
     }
 
-    @Transactional
     @Override
-    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
-
-        String emailId = authUtil.loggedInEmail();
-        Cart userCart = cartRepository.findCartByEmail(emailId);
-        Long cartId  = userCart.getCartId();
-
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+    public CartDTO getUserCart(Long userId) {
+        CartDTO cartDTO = cartStore.read(userId, this::toDTO);
+        if (cartDTO == null) {
+            throw new ResourceNotFoundException("Cart", "userId", userId);
+        }
+        return cartDTO;
+    }
 
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
+    @Override
+    public CartDTO updateProductQuantityInCart(Long productId, Integer quantity) {
+        ProductDTO product = getProductOrThrow(productId);
 
         if (product.getQuantity() == 0) {
             throw new APIException(product.getProductName() + " is not available");
@@ -158,65 +208,70 @@ public class CartServiceImpl implements CartService {
                     + " less than or equal to the quantity " + product.getQuantity() + ".");
         }
 
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
+        return cartStore.update(authUtil.loggedInUserId(), cart -> {
+            CartLine cartLine = cart.getLine(productId);
 
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
-        }
+            if (cartLine == null) {
+                throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
+            }
 
-        // Calculate new quantity
-        int newQuantity = cartItem.getQuantity() + quantity;
+            // Calculate new quantity
+            int newQuantity = cartLine.getQuantity() + quantity;
 
-        // Validation to prevent negative quantities
-        if (newQuantity < 0) {
-            throw new APIException("The resulting quantity cannot be negative.");
-        }
+            // Validation to prevent negative quantities
+            if (newQuantity < 0) {
+                throw new APIException("The resulting quantity cannot be negative.");
+            }
 
-        if (newQuantity == 0){
-            deleteProductFromCart(cartId, productId);
-        } else {
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItem.setDiscount(product.getDiscount());
-            cart.setTotalPrice(cart.getTotalPrice() + (cartItem.getProductPrice() * quantity));
-            cartRepository.save(cart);
-        }
+            if (newQuantity == 0) {
+                cart.removeLine(productId);
+                cart.setTotalPrice(cart.getTotalPrice() - (cartLine.getProductPrice() * cartLine.getQuantity()));
+            } else {
+                // The added units take the line's current price; toDTO reprices the whole line if it is stale.
+                cartLine.setQuantity(newQuantity);
+                cart.setTotalPrice(cart.getTotalPrice() + (cartLine.getProductPrice() * quantity));
+            }
 
-        CartItem updatedItem = cartItemRepository.save(cartItem);
-        if(updatedItem.getQuantity() == 0){
-            cartItemRepository.deleteById(updatedItem.getCartItemId());
-        }
-
-
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
-
-        List<CartItem> cartItems = cart.getCartItems();
-
-        Stream<ProductDTO> productStream = cartItems.stream().map(item -> {
-            ProductDTO prd = modelMapper.map(item.getProduct(), ProductDTO.class);
-            prd.setQuantity(item.getQuantity());
-            return prd;
+            return toDTO(cart);
         });
+    }
 
-
-        cartDTO.setProducts(productStream.toList());
-
-        return cartDTO;
+    @Override
+    public String removeProductFromCart(Long cartId, Long productId) {
+        return cartStore.update(authUtil.loggedInUserId(), cart -> {
+            if (!cartId.equals(cart.getCartId())) {
+                throw new ResourceNotFoundException("Cart", "cartId", cartId);
+            }
+
+            CartLine cartLine = cart.removeLine(productId);
+            if (cartLine == null) {
+                throw new ResourceNotFoundException("Product", "productId", productId);
+            }
+            cart.setTotalPrice(cart.getTotalPrice() - (cartLine.getProductPrice() * cartLine.getQuantity()));
+
+            ProductDTO product = findProduct(productId);
+            String productName = product != null ? product.getProductName() : String.valueOf(productId);
+            return "Product " + productName + " removed from the cart !!!";
+        });
     }
 
+    private ProductDTO findProduct(Long productId) {
+        return productCache.getProduct(productId, () ->
+                productRepository.findById(productId).map(productMapper::toDTO).orElse(null));
+    }
 
-    private Cart createCart() {
-        Cart userCart  = cartRepository.findCartByEmail(authUtil.loggedInEmail());
-        if(userCart != null){
-            return userCart;
+    private ProductDTO getProductOrThrow(Long productId) {
+        ProductDTO product = findProduct(productId);
+        if (product == null) {
+            throw new ResourceNotFoundException("Product", "productId", productId);
         }
+        return product;
+    }
 
-        Cart cart = new Cart();
-        cart.setTotalPrice(0.00);
-        cart.setUser(authUtil.loggedInUser());
-        Cart newCart =  cartRepository.save(cart);
-
-        return newCart;
+    // New lines start at price version 0, so this also stamps them with their product's current version.
+    private CartDTO toDTO(CartState cart) {
+        priceReconciler.reconcile(cart);
+        return cartMapper.toDTO(cart, this::findProduct);
     }
 
 
@@ -225,6 +280,7 @@ public class CartServiceImpl implements CartService {
     public String deleteProductFromCart(Long cartId, Long productId) {
         Cart cart = cartRepository.findById(cartId)
                 .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
+        cartStore.invalidate(cart.getUser().getUserId());
 
         CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
 
@@ -241,78 +297,33 @@ public class CartServiceImpl implements CartService {
     }
 
 
-    @Override
-    public void updateProductInCarts(Long cartId, Long productId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart", "cartId", cartId));
-
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-        CartItem cartItem = cartItemRepository.findCartItemByProductIdAndCartId(cartId, productId);
-
-        if (cartItem == null) {
-            throw new APIException("Product " + product.getProductName() + " not available in the cart!!!");
-        }
-
-        double cartPrice = cart.getTotalPrice()
-                - (cartItem.getProductPrice() * cartItem.getQuantity());
-
-        cartItem.setProductPrice(product.getSpecialPrice());
-
-        cart.setTotalPrice(cartPrice
-                + (cartItem.getProductPrice() * cartItem.getQuantity()));
-
-        cartItem = cartItemRepository.save(cartItem);
-    }
-
-    @Transactional
     @Override
     public String createOrUpdateCartWithItems(List<CartItemDTO> cartItems) {
-        // Get user's email
-        String emailId = authUtil.loggedInEmail();
-
-        // Check if an existing cart is available or create a new one
-        Cart existingCart = cartRepository.findCartByEmail(emailId);
-        if (existingCart == null) {
-            existingCart = new Cart();
-            existingCart.setTotalPrice(0.00);
-            existingCart.setUser(authUtil.loggedInUser());
-            existingCart = cartRepository.save(existingCart);
-        } else {
-            // Clear all current items in the existing cart
-            cartItemRepository.deleteAllByCartId(existingCart.getCartId());
-        }
-
-        double totalPrice = 0.00;
-
-        // Process each item in the request to add to the cart
-        for (CartItemDTO cartItemDTO : cartItems) {
-            Long productId = cartItemDTO.getProductId();
-            Integer quantity = cartItemDTO.getQuantity();
-
-            // Find the product by ID
-            Product product = productRepository.findById(productId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Product", "productId", productId));
-
-            // Directly update product stock and total price
-            // product.setQuantity(product.getQuantity() - quantity);
-            totalPrice += product.getSpecialPrice() * quantity;
-
-            // Create and save cart item
-            CartItem cartItem = new CartItem();
-            cartItem.setProduct(product);
-            cartItem.setCart(existingCart);
-            cartItem.setQuantity(quantity);
-            cartItem.setProductPrice(product.getSpecialPrice());
-            cartItem.setDiscount(product.getDiscount());
-            cartItemRepository.save(cartItem);
-        }
+        List<ProductDTO> products = cartItems.stream()
+                .map(cartItemDTO -> getProductOrThrow(cartItemDTO.getProductId()))
+                .toList();
 
-        // Update the cart's total price and save
-        existingCart.setTotalPrice(totalPrice);
-        cartRepository.save(existingCart);
+        cartStore.update(authUtil.loggedInUserId(), cart -> {
+            // Replace all current items in the cart
+            cart.clear();
+
+            for (int i = 0; i < cartItems.size(); i++) {
+                ProductDTO product = products.get(i);
+                Integer quantity = cartItems.get(i).getQuantity();
+
+                long price = Money.toMinor(product.getSpecialPrice());
+
+                CartLine cartLine = cart.getLine(product.getProductId());
+                if (cartLine == null) {
+                    cart.putLine(new CartLine(product.getProductId(), quantity, price, product.getDiscount(), 0L));
+                } else {
+                    cartLine.setQuantity(cartLine.getQuantity() + quantity);
+                }
+                cart.setTotalPrice(cart.getTotalPrice() + price * quantity);
+            }
+            return null;
+        });
         return "Cart created/updated with the new items successfully";
     }
 
-}
\ No newline at end of file
+}
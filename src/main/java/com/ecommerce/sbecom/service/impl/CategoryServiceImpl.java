@@ -1,33 +1,57 @@
 package com.ecommerce.sbecom.service.impl;
 
+import com.ecommerce.sbecom.cache.ProductCache;
 import com.ecommerce.sbecom.entity.Category;
+import com.ecommerce.sbecom.entity.Product;
 import com.ecommerce.sbecom.exception.APIException;
 import com.ecommerce.sbecom.exception.ResourceNotFoundException;
+import com.ecommerce.sbecom.mapper.CategoryMapper;
 import com.ecommerce.sbecom.payload.CategoryDTO;
 import com.ecommerce.sbecom.payload.CategoryResponse;
 import com.ecommerce.sbecom.repository.CategoryRepository;
+import com.ecommerce.sbecom.repository.KeysetSpecification;
+import com.ecommerce.sbecom.search.ProductSearchIndex;
 import com.ecommerce.sbecom.service.CategoryService;
-import org.modelmapper.ModelMapper;
+import com.ecommerce.sbecom.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final String CATEGORY_ID = "categoryId";
+    private static final Set<String> SORTABLE_FIELDS = Set.of(CATEGORY_ID, "categoryName");
+
     @Autowired
     private CategoryRepository categoryRepository;
 
     @Autowired
-    private ModelMapper modelMapper;
+    private CategoryMapper categoryMapper;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
 
     @Override
-    public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder) {
+    public CategoryResponse getAllCategories(Integer pageNumber, Integer pageSize, String sortBy, String sortOrder,
+                                             String cursor) {
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new APIException("Categories cannot be sorted by: " + sortBy);
+        }
+        if (cursor != null) {
+            return getCategoriesAfter(cursor, pageSize, sortBy, sortOrder);
+        }
+
         Sort sortByAndOrder = sortOrder.equalsIgnoreCase("asc")
                 ? Sort.by(sortBy).ascending()
                 : Sort.by(sortBy).descending();
@@ -40,7 +64,7 @@ public class CategoryServiceImpl implements CategoryService {
             throw new APIException("No category created till now.");
 
         List<CategoryDTO> categoryDTOS = categories.stream()
-                .map(category -> modelMapper.map(category, CategoryDTO.class))
+                .map(categoryMapper::toDTO)
                 .toList();
 
         CategoryResponse categoryResponse = new CategoryResponse();
@@ -53,15 +77,42 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryResponse;
     }
 
+    private CategoryResponse getCategoriesAfter(String cursor, Integer pageSize, String sortBy, String sortOrder) {
+        boolean ascending = sortOrder.equalsIgnoreCase("asc");
+        Specification<Category> specification = cursor.isBlank()
+                ? (root, query, cb) -> cb.conjunction()
+                : KeysetSpecification.after(KeysetCursor.decode(cursor), sortBy, CATEGORY_ID, ascending);
+
+        Sort sort = KeysetSpecification.sort(sortBy, CATEGORY_ID, ascending);
+        List<Category> categories = categoryRepository.findBy(specification,
+                q -> q.sortBy(sort).limit(pageSize + 1).all());
+        if (categories.isEmpty() && cursor.isBlank())
+            throw new APIException("No category created till now.");
+
+        boolean hasMore = categories.size() > pageSize;
+        if (hasMore) {
+            categories = categories.subList(0, pageSize);
+        }
+
+        CategoryResponse categoryResponse = new CategoryResponse();
+        categoryResponse.setContent(categories.stream().map(categoryMapper::toDTO).toList());
+        categoryResponse.setPageSize(pageSize);
+        categoryResponse.setLastPage(!hasMore);
+        if (hasMore) {
+            categoryResponse.setNextCursor(KeysetCursor.encode(categories.get(categories.size() - 1), sortBy, CATEGORY_ID));
+        }
+        return categoryResponse;
+    }
+
     @Override
     public CategoryDTO createCategory(CategoryDTO categoryDTO) {
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         Category categoryFromDb = categoryRepository.findByCategoryName(category.getCategoryName())
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryName", category.getCategoryName()));
         if (categoryFromDb != null)
             throw new APIException("Category with the name " + category.getCategoryName() + " already exists !!!");
         Category savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toDTO(savedCategory);
     }
 
     @Override
@@ -69,8 +120,14 @@ public class CategoryServiceImpl implements CategoryService {
         Category category = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
+        List<Long> productIds = category.getProducts().stream()
+                .map(Product::getProductId)
+                .toList();
+
         categoryRepository.delete(category);
-        return modelMapper.map(category, CategoryDTO.class);
+        productIds.forEach(productSearchIndex::remove);
+        productCache.evictAll();
+        return categoryMapper.toDTO(category);
     }
 
     @Override
@@ -78,9 +135,9 @@ public class CategoryServiceImpl implements CategoryService {
         Category savedCategory = categoryRepository.findById(categoryId)
                 .orElseThrow(() -> new ResourceNotFoundException("Category","categoryId",categoryId));
 
-        Category category = modelMapper.map(categoryDTO, Category.class);
+        Category category = categoryMapper.toEntity(categoryDTO);
         category.setCategoryId(categoryId);
         savedCategory = categoryRepository.save(category);
-        return modelMapper.map(savedCategory, CategoryDTO.class);
+        return categoryMapper.toDTO(savedCategory);
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package com.ecommerce.sbecom.service.impl;
 
+import com.ecommerce.sbecom.entity.EmailNotification;
 import com.ecommerce.sbecom.service.EmailService;
+import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -12,6 +16,11 @@ import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -27,36 +36,76 @@ public class EmailServiceImpl implements EmailService {
     private SpringTemplateEngine templateEngine;
 
     @Override
-    public void sendOrderConfirmation(String toEmail, String userName, String orderId,
-                                      String orderAmount, String shippingAddress) {
-        try {
-            Context context = new Context();
+    public Map<Long, String> sendNotifications(List<EmailNotification> notifications) {
+        Map<Long, String> failures = new HashMap<>();
+        Map<MimeMessage, Long> messages = new IdentityHashMap<>();
 
-            context.setVariable("firstName", userName);
-            context.setVariable("orderId", orderId);
-            context.setVariable("orderAmount", orderAmount);
-            context.setVariable("shippingAddress", shippingAddress);
+        for (EmailNotification notification : notifications) {
+            try {
+                messages.put(createMessage(notification), notification.getNotificationId());
+            } catch (MessagingException | RuntimeException e) {
+                log.error("Error rendering email notification {}", notification.getNotificationId(), e);
+                failures.put(notification.getNotificationId(), e.getMessage());
+            }
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        // Sending the whole batch reuses one SMTP connection instead of opening one per message.
+        List<MimeMessage> batch = new ArrayList<>(messages.keySet());
+        try {
+            mailSender.send(batch.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(id -> failures.put(id, e.getMessage()));
+            } else {
+                e.getFailedMessages().forEach((message, cause) ->
+                        failures.put(messages.get(message), cause.getMessage()));
+            }
+        } catch (MailException e) {
+            log.error("Error sending email batch", e);
+            messages.values().forEach(id -> failures.put(id, e.getMessage()));
+        }
+        return failures;
+    }
 
-            String body = templateEngine.process("email/order-confirmation", context);
+    private MimeMessage createMessage(EmailNotification notification) throws MessagingException {
+        Context context = new Context();
+        context.setVariable("firstName", notification.getRecipientName());
+        context.setVariable("orderId", notification.getOrderId());
+        context.setVariable("orderAmount", notification.getOrderAmount());
+        context.setVariable("shippingAddress", notification.getShippingAddress());
+        context.setVariable("emailType", notification.getEmailType().name());
 
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
-                    StandardCharsets.UTF_8.name());
+        String body = templateEngine.process(templateFor(notification), context);
 
-            helper.setTo(toEmail);
-            helper.setSubject("Your Order Confirmation");
-            helper.setText(body, true); // true for HTML
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, MimeMessageHelper.MULTIPART_MODE_MIXED_RELATED,
+                StandardCharsets.UTF_8.name());
 
-            mailSender.send(message);
-        } catch (Exception e) {
-            log.error("Error sending order confirmation", e);
-        }
+        helper.setFrom(sender);
+        helper.setTo(notification.getRecipient());
+        helper.setSubject(subjectFor(notification));
+        helper.setText(body, true); // true for HTML
+        return message;
     }
 
+    private String templateFor(EmailNotification notification) {
+        return switch (notification.getEmailType()) {
+            case ORDER_PLACED -> "email/order-confirmation";
+            case ORDER_SHIPPED, ORDER_DELIVERED, ORDER_CANCELLED -> "email/order-status";
+            default -> throw new IllegalArgumentException("No email template for " + notification.getEmailType());
+        };
+    }
 
-//    private String loadTemplate(String path) throws IOException {
-//        ClassPathResource resource = new ClassPathResource(path);
-//        byte[] bytes = resource.getInputStream().readAllBytes();
-//        return new String(bytes, StandardCharsets.UTF_8);
-//    }
+    private String subjectFor(EmailNotification notification) {
+        return switch (notification.getEmailType()) {
+            case ORDER_PLACED -> "Your Order Confirmation";
+            case ORDER_SHIPPED -> "Your Order #" + notification.getOrderId() + " Has Shipped";
+            case ORDER_DELIVERED -> "Your Order #" + notification.getOrderId() + " Has Been Delivered";
+            case ORDER_CANCELLED -> "Your Order #" + notification.getOrderId() + " Has Been Cancelled";
+            default -> "Your Order #" + notification.getOrderId();
+        };
+    }
 }
@@ -1,30 +1,54 @@
 package com.ecommerce.sbecom.service.impl;
 
+import com.ecommerce.sbecom.exception.APIException;
 import com.ecommerce.sbecom.service.FileService;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
 @Service
 public class FileServiceImpl implements FileService {
 
+    private static final long TRANSFER_CHUNK = 8L * 1024 * 1024;
+
     @Override
     public String uploadImage(String path, MultipartFile file) throws IOException {
         String originalFileName = file.getOriginalFilename();
+        if (originalFileName == null || originalFileName.lastIndexOf('.') < 0) {
+            throw new APIException("Image file name must have an extension");
+        }
         String randomId = UUID.randomUUID().toString();
         String fileName = randomId.concat(originalFileName.substring(originalFileName.lastIndexOf('.')));
-        String filePath = path + File.separator + fileName;
 
-        File folder = new File(path);
-        if (!folder.exists())
-            folder.mkdir();
+        Path folder = Paths.get(path);
+        Files.createDirectories(folder);
+        Path target = folder.resolve(fileName);
 
-        Files.copy(file.getInputStream(), Paths.get(filePath));
+        // Streams straight into the file channel; when the upload was spooled to disk this is a
+        // kernel-level file-to-file copy and the bytes never pass through the heap.
+        try (InputStream in = file.getInputStream();
+             ReadableByteChannel source = in instanceof FileInputStream fileIn ? fileIn.getChannel() : Channels.newChannel(in);
+             FileChannel destination = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long position = 0;
+            long transferred;
+            while ((transferred = destination.transferFrom(source, position, TRANSFER_CHUNK)) > 0) {
+                position += transferred;
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
         return fileName;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,171 @@
+package com.ecommerce.sbecom.service.impl;
+
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.cart.CartStore;
+import com.ecommerce.sbecom.entity.Cart;
+import com.ecommerce.sbecom.entity.CartItem;
+import com.ecommerce.sbecom.entity.InventoryReservation;
+import com.ecommerce.sbecom.entity.ReservationStatus;
+import com.ecommerce.sbecom.exception.APIException;
+import com.ecommerce.sbecom.exception.ResourceNotFoundException;
+import com.ecommerce.sbecom.payload.InventoryReservationDTO;
+import com.ecommerce.sbecom.repository.CartRepository;
+import com.ecommerce.sbecom.repository.CheckoutJdbcRepository;
+import com.ecommerce.sbecom.repository.InventoryReservationRepository;
+import com.ecommerce.sbecom.service.InventoryService;
+import com.ecommerce.sbecom.util.AuthUtil;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stock is only ever changed with guarded, relative UPDATEs, so concurrent checkouts of the last
+ * units cannot both succeed and quantity never drops below zero. A reservation takes the units
+ * out of stock up front; checkout then only settles the difference between what was reserved
+ * and what is being ordered.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+
+    private final InventoryReservationRepository reservationRepository;
+    private final CartRepository cartRepository;
+    private final CheckoutJdbcRepository checkoutJdbcRepository;
+    private final ProductCache productCache;
+    private final CartStore cartStore;
+    private final AuthUtil authUtil;
+
+    @Value("${project.inventory.reservations.ttl-seconds:900}")
+    private long reservationTtlSeconds;
+
+    @Value("${project.inventory.reservations.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    public InventoryServiceImpl(InventoryReservationRepository reservationRepository,
+                                CartRepository cartRepository,
+                                CheckoutJdbcRepository checkoutJdbcRepository,
+                                ProductCache productCache,
+                                CartStore cartStore,
+                                AuthUtil authUtil) {
+        this.reservationRepository = reservationRepository;
+        this.cartRepository = cartRepository;
+        this.checkoutJdbcRepository = checkoutJdbcRepository;
+        this.productCache = productCache;
+        this.cartStore = cartStore;
+        this.authUtil = authUtil;
+    }
+
+    @Override
+    @Transactional
+    public List<InventoryReservationDTO> reserveCart(String emailId) {
+        // Reservations are taken against the stored cart, so pending edits must be written first.
+        cartStore.flush(authUtil.loggedInUserId());
+        Cart cart = cartRepository.findCartWithItemsByEmail(emailId);
+        if (cart == null) {
+            throw new ResourceNotFoundException("Cart", "email", emailId);
+        }
+        if (cart.getCartItems().isEmpty()) {
+            throw new APIException("Cart is empty");
+        }
+
+        // Reserving again replaces the previous hold instead of stacking on top of it; returning the old hold
+        // and taking the new one is a single ordered pass over the rows.
+        List<InventoryReservation> previous =
+                reservationRepository.findByEmailAndStatusForUpdate(emailId, ReservationStatus.ACTIVE);
+        previous.forEach(reservation -> reservation.setStatus(ReservationStatus.RELEASED));
+
+        SortedMap<Long, Integer> quantities = quantitiesByProduct(cart.getCartItems());
+        SortedMap<Long, Integer> deltas = stockDeltas(previous, quantities);
+        adjustStock(deltas, cart.getCartItems());
+
+        Instant expiresAt = Instant.now().plusSeconds(reservationTtlSeconds);
+        List<InventoryReservation> reservations = quantities.entrySet().stream()
+                .map(entry -> new InventoryReservation(emailId, entry.getKey(), entry.getValue(), expiresAt))
+                .toList();
+        reservations = reservationRepository.saveAll(reservations);
+        productCache.evictStock(deltas.keySet());
+
+        return reservations.stream()
+                .map(reservation -> new InventoryReservationDTO(reservation.getReservationId(),
+                        reservation.getProductId(), reservation.getQuantity(), reservation.getExpiresAt()))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public void releaseReservations(String emailId) {
+        release(reservationRepository.findByEmailAndStatusForUpdate(emailId, ReservationStatus.ACTIVE));
+    }
+
+    @Override
+    @Transactional
+    public void commitStock(String emailId, List<CartItem> cartItems) {
+        // A reservation past its expiry that the sweeper has not released yet still holds its units, so it counts.
+        List<InventoryReservation> reservations =
+                reservationRepository.findByEmailAndStatusForUpdate(emailId, ReservationStatus.ACTIVE);
+        reservations.forEach(reservation -> reservation.setStatus(ReservationStatus.CONSUMED));
+
+        // Units still missing are taken and reserved units left over are returned, in one ordered pass.
+        SortedMap<Long, Integer> deltas = stockDeltas(reservations, quantitiesByProduct(cartItems));
+        adjustStock(deltas, cartItems);
+        productCache.evictStock(deltas.keySet());
+    }
+
+    @Override
+    @Transactional
+    public int releaseExpiredReservations() {
+        List<InventoryReservation> expired = reservationRepository.findExpiredForUpdate(
+                ReservationStatus.ACTIVE, Instant.now(), PageRequest.of(0, releaseBatchSize));
+        release(expired);
+        return expired.size();
+    }
+
+    private void release(List<InventoryReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (InventoryReservation reservation : reservations) {
+            reservation.setStatus(ReservationStatus.RELEASED);
+            quantities.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum);
+        }
+        checkoutJdbcRepository.restock(quantities);
+        productCache.evictStock(quantities.keySet());
+    }
+
+    // Held units go back to stock and wanted units come out of it; products where the two cancel out are left alone.
+    static SortedMap<Long, Integer> stockDeltas(List<InventoryReservation> held, SortedMap<Long, Integer> wanted) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        held.forEach(reservation -> deltas.merge(reservation.getProductId(), reservation.getQuantity(), Integer::sum));
+        wanted.forEach((productId, quantity) -> deltas.merge(productId, -quantity, Integer::sum));
+        deltas.values().removeIf(delta -> delta == 0);
+        return deltas;
+    }
+
+    private void adjustStock(SortedMap<Long, Integer> deltas, List<CartItem> cartItems) {
+        List<Long> shortages = checkoutJdbcRepository.adjustStock(deltas);
+        if (shortages.isEmpty()) {
+            return;
+        }
+        Map<Long, String> names = cartItems.stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getProductId(),
+                        item -> item.getProduct().getProductName(), (a, b) -> a));
+        String unavailable = shortages.stream()
+                .map(productId -> names.getOrDefault(productId, String.valueOf(productId)))
+                .collect(Collectors.joining(", "));
+        throw new APIException("Not enough stock available for: " + unavailable);
+    }
+
+    private SortedMap<Long, Integer> quantitiesByProduct(List<CartItem> cartItems) {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        cartItems.forEach(item -> quantities.merge(item.getProduct().getProductId(), item.getQuantity(), Integer::sum));
+        return quantities;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.sbecom.service.impl;
+
+import com.ecommerce.sbecom.entity.EmailNotification;
+import com.ecommerce.sbecom.entity.EmailType;
+import com.ecommerce.sbecom.entity.Order;
+import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.repository.EmailNotificationRepository;
+import com.ecommerce.sbecom.repository.OrderRecipient;
+import com.ecommerce.sbecom.service.NotificationService;
+import com.ecommerce.sbecom.util.Money;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records notifications in the outbox table as part of the caller's transaction, so an email is queued
+ * exactly when the order commits. Delivery happens later on {@link com.ecommerce.sbecom.worker.EmailOutboxWorker}.
+ */
+@Service
+public class NotificationServiceImpl implements NotificationService {
+
+    private final EmailNotificationRepository emailNotificationRepository;
+
+    public NotificationServiceImpl(EmailNotificationRepository emailNotificationRepository) {
+        this.emailNotificationRepository = emailNotificationRepository;
+    }
+
+    @Override
+    public void queueOrderConfirmation(Order order, User user) {
+        EmailNotification notification = new EmailNotification(EmailType.ORDER_PLACED,
+                user.getEmail(), user.getFirstName(), order.getOrderId());
+        notification.setOrderAmount(Money.format(order.getTotalAmount()));
+        notification.setShippingAddress(order.getAddress().getFullAddress());
+        emailNotificationRepository.save(notification);
+    }
+
+    @Override
+    public void queueOrderStatusChanges(EmailType emailType, List<OrderRecipient> recipients) {
+        List<EmailNotification> notifications = new ArrayList<>(recipients.size());
+        for (OrderRecipient recipient : recipients) {
+            notifications.add(new EmailNotification(emailType, recipient.email(), recipient.firstName(), recipient.orderId()));
+        }
+        emailNotificationRepository.saveAll(notifications);
+    }
+}
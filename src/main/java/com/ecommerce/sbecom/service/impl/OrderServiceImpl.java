@@ -1,27 +1,42 @@
 package com.ecommerce.sbecom.service.impl;
 
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.cart.CartPriceReconciler;
+import com.ecommerce.sbecom.cart.CartStore;
 import com.ecommerce.sbecom.entity.*;
 import com.ecommerce.sbecom.exception.APIException;
 import com.ecommerce.sbecom.exception.ResourceNotFoundException;
+import com.ecommerce.sbecom.mapper.OrderMapper;
 import com.ecommerce.sbecom.payload.OrderDTO;
-import com.ecommerce.sbecom.payload.OrderItemDTO;
+import com.ecommerce.sbecom.payload.OrderHistoryResponse;
+import com.ecommerce.sbecom.payload.OrderStatusResultDTO;
 import com.ecommerce.sbecom.repository.*;
-import com.ecommerce.sbecom.service.CartService;
-import com.ecommerce.sbecom.service.EmailService;
+import com.ecommerce.sbecom.service.InventoryService;
+import com.ecommerce.sbecom.service.NotificationService;
 import com.ecommerce.sbecom.service.OrderService;
 import com.ecommerce.sbecom.util.AuthUtil;
+import com.ecommerce.sbecom.util.KeysetCursor;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Service
 public class OrderServiceImpl implements OrderService {
 
+    private static final int MAX_BULK_ORDER_IDS = 1000;
+
     @Autowired
     CartRepository cartRepository;
 
@@ -38,16 +53,19 @@ public class OrderServiceImpl implements OrderService {
     PaymentRepository paymentRepository;
 
     @Autowired
-    CartService cartService;
+    CartItemRepository cartItemRepository;
+
+    @Autowired
+    CheckoutJdbcRepository checkoutJdbcRepository;
 
     @Autowired
-    ModelMapper modelMapper;
+    InventoryService inventoryService;
 
     @Autowired
-    ProductRepository productRepository;
+    OrderMapper orderMapper;
 
     @Autowired
-    private EmailService emailService;
+    private NotificationService notificationService;
 
     @Autowired
     private UserRepository userRepository;
@@ -55,15 +73,29 @@ public class OrderServiceImpl implements OrderService {
     @Autowired
     private AuthUtil authUtil;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartPriceReconciler cartPriceReconciler;
+
     @Transactional
     @Override
     public OrderDTO placeOrder(String emailId, Long addressId, String paymentMethod,
                                String pgName, String pgPaymentId, String pgStatus,
                                String pgResponseMessage) {
-        Cart cart = cartRepository.findCartByEmail(emailId);
+        // Checkout reads and clears the stored cart; the shopper's working copy is written and fenced off first.
+        cartStore.invalidate(authUtil.loggedInUserId());
+
+        Cart cart = cartRepository.findCartWithItemsByEmail(emailId);
         if (cart == null) {
             throw new ResourceNotFoundException("Cart", "email", emailId);
         }
+        // Lines priced before a product's last price change are settled at the current price.
+        cartPriceReconciler.reconcile(cart);
 
         Address address = addressRepository.findById(addressId)
                 .orElseThrow(() -> new ResourceNotFoundException("Address", "addressId", addressId));
@@ -72,7 +104,7 @@ public class OrderServiceImpl implements OrderService {
         order.setEmail(emailId);
         order.setOrderDate(LocalDate.now());
         order.setTotalAmount(cart.getTotalPrice());
-        order.setOrderStatus("Order Accepted !");
+        order.setOrderStatus(Order.STATUS_ACCEPTED);
         order.setAddress(address);
 
         Payment payment = new Payment(paymentMethod, pgPaymentId, pgStatus, pgResponseMessage, pgName);
@@ -80,80 +112,87 @@ public class OrderServiceImpl implements OrderService {
         payment = paymentRepository.save(payment);
         order.setPayment(payment);
 
-        Order savedOrder = orderRepository.save(order);
-
-         User user = userRepository.findByEmail(emailId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "email", emailId));
-
-        emailService.sendOrderConfirmation(
-                user.getEmail(),
-                user.getFirstName(),
-                order.getOrderId().toString(),
-                order.getTotalAmount().toString(),
-                address.getFullAddress()
-        );
+        // Ids are assigned in-process, so the insert waits for a flush; the JDBC item insert below needs the row.
+        Order savedOrder = orderRepository.saveAndFlush(order);
 
         List<CartItem> cartItems = cart.getCartItems();
         if (cartItems.isEmpty()) {
             throw new APIException("Cart is empty");
         }
 
-        List<OrderItem> orderItems = new ArrayList<>();
-        for (CartItem cartItem : cartItems) {
-            OrderItem orderItem = new OrderItem();
-            orderItem.setProduct(cartItem.getProduct());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setDiscount(cartItem.getDiscount());
-            orderItem.setOrderedProductPrice(cartItem.getProductPrice());
-            orderItem.setOrder(savedOrder);
-            orderItems.add(orderItem);
-        }
-
-        orderItems = orderItemRepository.saveAll(orderItems);
-
-        cart.getCartItems().forEach(item -> {
-            int quantity = item.getQuantity();
-            Product product = item.getProduct();
-
-            product.setQuantity(product.getQuantity() - quantity);
-
-            productRepository.save(product);
+        // Fails the whole checkout if any item is out of stock, before anything else is written.
+        inventoryService.commitStock(emailId, cartItems);
 
-            cartService.deleteProductFromCart(cart.getCartId(), item.getProduct().getProductId());
-        });
+        // Order items and the cart are each handled by one statement, however many items the cart holds.
+        checkoutJdbcRepository.insertOrderItems(savedOrder.getOrderId(), cartItems);
+        cartItemRepository.deleteAllByCartId(cart.getCartId());
+        cartRepository.resetTotalPrice(cart.getCartId());
 
-        OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
-        orderItems.forEach(item -> orderDTO.getOrderItems().add(modelMapper.map(item, OrderItemDTO.class)));
+        User user = userRepository.findByEmail(emailId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "email", emailId));
 
-        orderDTO.setAddressId(addressId);
+        // Only queued here; the email goes out after commit, off the request thread.
+        notificationService.queueOrderConfirmation(savedOrder, user);
 
-        return orderDTO;
+        List<OrderItem> orderItems = orderItemRepository.findWithProductByOrderId(savedOrder.getOrderId());
+        return orderMapper.toDTO(savedOrder, orderItems);
     }
 
     @Override
     public OrderDTO getOrderById(String emailId, Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findAllWithItemsByOrderIdIn(List.of(orderId)).stream()
+                .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "orderId", orderId));
         if (!order.getEmail().equals(emailId)) {
             throw new APIException("Order does not belong to the user with email: " + emailId);
         }
-        OrderDTO orderDTO = modelMapper.map(order, OrderDTO.class);
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
+        List<OrderItem> orderItems = order.getOrderItems();
         if (orderItems.isEmpty()) {
             throw new APIException("No items found for the order with ID: " + orderId);
         }
-        List<OrderItemDTO> orderItemDTOS = new ArrayList<>();
-        for (OrderItem orderItem : orderItems) {
-            OrderItemDTO orderItemDTO = modelMapper.map(orderItem, OrderItemDTO.class);
-            orderItemDTO.setProductId(orderItem.getProduct().getProductId());
-            orderItemDTOS.add(orderItemDTO);
+        return orderMapper.toDTO(order, orderItems);
+    }
+
+    // Two queries per page whatever the number of items: a keyset seek for the ids, then one fetch join.
+    @Override
+    public OrderHistoryResponse getOrderHistory(String emailId, Integer pageSize, String cursor) {
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+        List<Long> orderIds;
+        if (cursor == null || cursor.isBlank()) {
+            orderIds = orderRepository.findHistoryIds(emailId, limit);
+        } else {
+            KeysetCursor after = KeysetCursor.decode(cursor);
+            LocalDate orderDate = (LocalDate) after.getValue(LocalDate.class);
+            if (orderDate == null) {
+                throw new APIException("Invalid cursor: " + cursor);
+            }
+            orderIds = orderRepository.findHistoryIdsAfter(emailId, orderDate, after.getId(), limit);
+        }
+
+        boolean hasMore = orderIds.size() > pageSize;
+        if (hasMore) {
+            orderIds = orderIds.subList(0, pageSize);
         }
-        orderDTO.setOrderItems(orderItemDTOS);
-        orderDTO.setAddressId(order.getAddress().getAddressId());
-        return orderDTO;
+
+        Map<Long, Order> ordersById = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            orderRepository.findAllWithItemsByOrderIdIn(orderIds).forEach(order -> ordersById.put(order.getOrderId(), order));
+        }
+        List<OrderDTO> orderDTOs = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            Order order = ordersById.get(orderId);
+            orderDTOs.add(orderMapper.toDTO(order, order.getOrderItems()));
+        }
+
+        String nextCursor = hasMore
+                ? KeysetCursor.encode(ordersById.get(orderIds.get(orderIds.size() - 1)), "orderDate", "orderId")
+                : null;
+        return new OrderHistoryResponse(orderDTOs, pageSize, !hasMore, nextCursor);
     }
 
+    // Short transaction: a guarded status flip, one restock batch in product id order and one outbox row.
     @Override
+    @Transactional
     public String cancelOrder(String emailId, Long orderId) {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "orderId", orderId));
@@ -161,22 +200,25 @@ public class OrderServiceImpl implements OrderService {
         if (!order.getEmail().equals(emailId)) {
             throw new APIException("Order does not belong to the user with email: " + emailId);
         }
+        // Locks the cart row before any product row, in the same order as checkout.
+        cartStore.invalidate(authUtil.loggedInUserId());
 
-        if (!order.getOrderStatus().equalsIgnoreCase("Order Accepted !")) {
+        // Only one of two concurrent cancellations matches the guard, so stock is never returned twice.
+        int cancelled = orderRepository.transitionStatus(List.of(orderId), Order.STATUS_ACCEPTED, Order.STATUS_CANCELLED,
+                EmailType.ORDER_CANCELLED);
+        if (cancelled == 0) {
             throw new APIException("Order cannot be cancelled as it is already processed or delivered.");
         }
 
-        order.setOrderStatus("Order Cancelled");
-        orderRepository.save(order);
-
-        //emailService.sendOrderNotification(order.getEmail(), order.getOrderId().toString(), EmailType.ORDER_CANCELLED);
-
-        List<OrderItem> orderItems = orderItemRepository.findByOrder(order);
-        for (OrderItem item : orderItems) {
-            Product product = item.getProduct();
-            product.setQuantity(product.getQuantity() + item.getQuantity());
-            productRepository.save(product);
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (Object[] row : orderItemRepository.sumQuantitiesByProduct(orderId)) {
+            quantities.put((Long) row[0], ((Number) row[1]).intValue());
         }
+        checkoutJdbcRepository.restock(quantities);
+        productCache.evictStock(quantities.keySet());
+
+        notificationService.queueOrderStatusChanges(EmailType.ORDER_CANCELLED,
+                orderRepository.findRecipients(List.of(orderId)));
 
         Cart cart = cartRepository.findCartByEmail(emailId);
         if (cart != null) {
@@ -187,27 +229,71 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
-    public String markOrderShipped(String emailId, Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        order.setEmailType(EmailType.ORDER_SHIPPED);
-        orderRepository.save(order);
+    @Transactional
+    public String markOrderShipped(Long orderId) {
+        requireUpdated(markOrdersShipped(List.of(orderId)).get(0), "shipped");
+        return "Order with ID: " + orderId + " has been shipped.";
+    }
 
-        //emailService.sendOrderNotification(order.getEmail(), order.getOrderId().toString(), EmailType.ORDER_SHIPPED);
+    @Override
+    @Transactional
+    public String markOrderDelivered(Long orderId) {
+        requireUpdated(markOrdersDelivered(List.of(orderId)).get(0), "delivered");
+        return "Order with ID: " + orderId + " has been delivered successfully.";
+    }
 
-        return "Order with ID: " + orderId + " has been shipped.";
+    @Override
+    @Transactional
+    public List<OrderStatusResultDTO> markOrdersShipped(List<Long> orderIds) {
+        return transition(orderIds, Order.STATUS_ACCEPTED, Order.STATUS_SHIPPED, EmailType.ORDER_SHIPPED);
     }
 
     @Override
-    public String markOrderDelivered(String emailId, Long orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
+    @Transactional
+    public List<OrderStatusResultDTO> markOrdersDelivered(List<Long> orderIds) {
+        return transition(orderIds, Order.STATUS_SHIPPED, Order.STATUS_DELIVERED, EmailType.ORDER_DELIVERED);
+    }
 
-        order.setEmailType(EmailType.ORDER_DELIVERED);
-        orderRepository.save(order);
+    // One locking read, one guarded UPDATE and one batch of outbox rows for the whole list of orders.
+    private List<OrderStatusResultDTO> transition(List<Long> orderIds, String fromStatus, String toStatus,
+                                                  EmailType emailType) {
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        if (requested.size() > MAX_BULK_ORDER_IDS) {
+            throw new APIException("At most " + MAX_BULK_ORDER_IDS + " orders can be updated at once");
+        }
 
-        //emailService.sendOrderNotification(order.getEmail(), order.getOrderId().toString(), EmailType.ORDER_DELIVERED);
-        return "Order with ID: " + orderId + " has been delivered successfully.";
+        Map<Long, String> statuses = new HashMap<>();
+        for (Object[] row : orderRepository.lockStatuses(requested)) {
+            statuses.put(((Number) row[0]).longValue(), (String) row[1]);
+        }
+
+        List<Long> eligible = new ArrayList<>();
+        List<OrderStatusResultDTO> results = new ArrayList<>(requested.size());
+        for (Long orderId : requested) {
+            String status = statuses.get(orderId);
+            if (status == null) {
+                results.add(new OrderStatusResultDTO(orderId, "NOT_FOUND", null));
+            } else if (!status.equals(fromStatus)) {
+                results.add(new OrderStatusResultDTO(orderId, "INVALID_STATUS", status));
+            } else {
+                eligible.add(orderId);
+                results.add(new OrderStatusResultDTO(orderId, "UPDATED", toStatus));
+            }
+        }
+
+        if (!eligible.isEmpty()) {
+            orderRepository.transitionStatus(eligible, fromStatus, toStatus, emailType);
+            notificationService.queueOrderStatusChanges(emailType, orderRepository.findRecipients(eligible));
+        }
+        return results;
+    }
+
+    private void requireUpdated(OrderStatusResultDTO result, String action) {
+        if ("NOT_FOUND".equals(result.getResult())) {
+            throw new ResourceNotFoundException("Order", "orderId", result.getOrderId());
+        }
+        if ("INVALID_STATUS".equals(result.getResult())) {
+            throw new APIException("Order cannot be " + action + " from status: " + result.getOrderStatus());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,353 @@
+package com.ecommerce.sbecom.service.impl;
+
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.entity.AppRole;
+import com.ecommerce.sbecom.entity.Category;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.exception.APIException;
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductImportErrorDTO;
+import com.ecommerce.sbecom.payload.ProductImportReport;
+import com.ecommerce.sbecom.repository.CategoryRepository;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import com.ecommerce.sbecom.search.ProductSearchIndex;
+import com.ecommerce.sbecom.service.ProductImportService;
+import com.ecommerce.sbecom.util.AuthUtil;
+import com.ecommerce.sbecom.util.Money;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports a seller's catalog from CSV (with a header row) or JSON lines. The upload is read line by
+ * line and written in chunks: one query probes the (category, name key) index for the whole chunk, and the inserts
+ * go out as JDBC batches in their own transaction, after which the persistence context is cleared
+ * so memory stays flat however large the file is. Rows that fail never stop the import; they are
+ * listed in the report instead.
+ */
+@Slf4j
+@Service
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS =
+            List.of("productName", "description", "quantity", "price", "discount", "categoryId");
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuthUtil authUtil;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCache productCache;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductImportServiceImpl(ProductRepository productRepository,
+                                    CategoryRepository categoryRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ObjectMapper objectMapper,
+                                    AuthUtil authUtil,
+                                    ProductSearchIndex productSearchIndex,
+                                    ProductCache productCache) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.authUtil = authUtil;
+        this.productSearchIndex = productSearchIndex;
+        this.productCache = productCache;
+    }
+
+    @Override
+    public ProductImportReport importProducts(MultipartFile file) throws IOException {
+        User seller = authUtil.loggedInUser();
+        if (!seller.hasRole(AppRole.ROLE_SELLER))
+            throw new APIException("Only sellers can add products.");
+
+        long start = System.currentTimeMillis();
+        boolean jsonLines = isJsonLines(file);
+        ProductImportReport report = new ProductImportReport();
+        Set<String> seenKeys = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Map<String, Integer> columns = null;
+            if (!jsonLines) {
+                columns = readHeader(reader.readLine());
+                lineNumber++;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.setTotalRows(report.getTotalRows() + 1);
+
+                ProductDTO productDTO;
+                try {
+                    productDTO = jsonLines ? objectMapper.readValue(line, ProductDTO.class) : parseCsvRow(line, columns);
+                } catch (JsonProcessingException e) {
+                    fail(report, lineNumber, "Could not parse row: " + e.getOriginalMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    fail(report, lineNumber, "Could not parse row: " + e.getMessage());
+                    continue;
+                }
+
+                String error = validate(productDTO);
+                if (error != null) {
+                    fail(report, lineNumber, error);
+                    continue;
+                }
+
+                chunk.add(new ImportRow(lineNumber, productDTO));
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, seller, seenKeys, report);
+                    chunk.clear();
+                }
+            }
+        }
+        writeChunk(chunk, seller, seenKeys, report);
+
+        if (report.getImported() > 0) {
+            productCache.evictPages();
+        }
+        report.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Imported {} of {} products for seller {} in {} ms", report.getImported(), report.getTotalRows(),
+                seller.getUserId(), report.getElapsedMillis());
+        return report;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, User seller, Set<String> seenKeys, ProductImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        Set<Long> categoryIds = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (ImportRow row : chunk) {
+            categoryIds.add(row.product().getCategoryId());
+            names.add(Product.nameKey(row.product().getProductName()));
+        }
+        Set<Long> existingCategories = new HashSet<>(categoryRepository.findExistingIds(categoryIds));
+        Set<String> existingKeys = new HashSet<>();
+        if (!existingCategories.isEmpty()) {
+            for (Object[] pair : productRepository.findCategoryAndNameKeys(existingCategories, names)) {
+                existingKeys.add(key((Long) pair[0], (String) pair[1]));
+            }
+        }
+
+        List<ImportRow> toInsert = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            ProductDTO productDTO = row.product();
+            if (!existingCategories.contains(productDTO.getCategoryId())) {
+                fail(report, row.lineNumber(), "Category not found with categoryId: " + productDTO.getCategoryId());
+                continue;
+            }
+            String key = key(productDTO.getCategoryId(), Product.nameKey(productDTO.getProductName()));
+            if (existingKeys.contains(key) || !seenKeys.add(key)) {
+                report.setDuplicates(report.getDuplicates() + 1);
+                addError(report, row.lineNumber(), "Product already exists: " + productDTO.getProductName());
+                continue;
+            }
+            toInsert.add(row);
+        }
+        if (toInsert.isEmpty()) {
+            return;
+        }
+
+        try {
+            save(toInsert, seller, report);
+        } catch (RuntimeException e) {
+            // The batch was rolled back as a whole; retry it one row per transaction so only the bad rows fail.
+            log.warn("Product import chunk of {} rows failed, retrying row by row: {}", toInsert.size(), cause(e));
+            for (ImportRow row : toInsert) {
+                try {
+                    save(List.of(row), seller, report);
+                } catch (RuntimeException rowFailure) {
+                    ProductDTO productDTO = row.product();
+                    seenKeys.remove(key(productDTO.getCategoryId(), Product.nameKey(productDTO.getProductName())));
+                    fail(report, row.lineNumber(), "Could not save row: " + cause(rowFailure));
+                }
+            }
+        }
+    }
+
+    private void save(List<ImportRow> rows, User seller, ProductImportReport report) {
+        List<Product> saved = transactionTemplate.execute(status -> persist(rows, seller));
+        saved.forEach(productSearchIndex::index);
+        report.setImported(report.getImported() + saved.size());
+    }
+
+    private String cause(RuntimeException e) {
+        return NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+    }
+
+    private List<Product> persist(List<ImportRow> rows, User seller) {
+        User sellerRef = entityManager.getReference(User.class, seller.getUserId());
+        Map<Long, Category> categories = new HashMap<>();
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            ProductDTO productDTO = row.product();
+            Product product = new Product();
+            product.setProductName(productDTO.getProductName().trim());
+            product.setDescription(productDTO.getDescription());
+            product.setQuantity(productDTO.getQuantity());
+            product.setPrice(Money.toMinor(productDTO.getPrice()));
+            product.setDiscount(productDTO.getDiscount());
+            product.setSpecialPrice(Money.applyDiscount(product.getPrice(), productDTO.getDiscount()));
+            product.setImage("default.png");
+            product.setCategory(categories.computeIfAbsent(productDTO.getCategoryId(),
+                    id -> entityManager.getReference(Category.class, id)));
+            product.setUser(sellerRef);
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return products;
+    }
+
+    private String validate(ProductDTO productDTO) {
+        if (productDTO.getProductName() == null || productDTO.getProductName().trim().length() < 3)
+            return "Product name must contain atleast 3 characters";
+        if (productDTO.getDescription() == null || productDTO.getDescription().trim().length() < 6)
+            return "Product description must contain atleast 6 characters";
+        if (productDTO.getQuantity() == null || productDTO.getQuantity() < 0)
+            return "Quantity must be zero or more";
+        if (!Double.isFinite(productDTO.getPrice()) || productDTO.getPrice() < 0)
+            return "Price must be zero or more";
+        if (!Double.isFinite(productDTO.getDiscount()) || productDTO.getDiscount() < 0 || productDTO.getDiscount() > 100)
+            return "Discount must be between 0 and 100";
+        if (productDTO.getCategoryId() == null)
+            return "categoryId is required";
+        return null;
+    }
+
+    private Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new APIException("The import file is empty");
+        }
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column.toLowerCase(Locale.ROOT))) {
+                throw new APIException("CSV header must contain the columns " + String.join(",", CSV_COLUMNS));
+            }
+        }
+        return columns;
+    }
+
+    private ProductDTO parseCsvRow(String line, Map<String, Integer> columns) {
+        List<String> values = parseCsvLine(line);
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductName(column(values, columns, "productName"));
+        productDTO.setDescription(column(values, columns, "description"));
+        productDTO.setQuantity(Integer.valueOf(column(values, columns, "quantity")));
+        productDTO.setPrice(Double.parseDouble(column(values, columns, "price")));
+        productDTO.setDiscount(Double.parseDouble(column(values, columns, "discount")));
+        productDTO.setCategoryId(Long.valueOf(column(values, columns, "categoryId")));
+        return productDTO;
+    }
+
+    private String column(List<String> values, Map<String, Integer> columns, String name) {
+        int index = columns.get(name.toLowerCase(Locale.ROOT));
+        if (index >= values.size()) {
+            throw new IllegalArgumentException("missing value for " + name);
+        }
+        return values.get(index).trim();
+    }
+
+    // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes.
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private boolean isJsonLines(MultipartFile file) {
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        String contentType = file.getContentType() == null ? "" : file.getContentType().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv") || contentType.contains("csv")) {
+            return false;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson") || contentType.contains("json")) {
+            return true;
+        }
+        throw new APIException("Import file must be .csv or .jsonl");
+    }
+
+    private String key(Long categoryId, String nameKey) {
+        return categoryId + "|" + nameKey;
+    }
+
+    private void fail(ProductImportReport report, long lineNumber, String message) {
+        report.setFailed(report.getFailed() + 1);
+        addError(report, lineNumber, message);
+    }
+
+    private void addError(ProductImportReport report, long lineNumber, String message) {
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ProductImportErrorDTO(lineNumber, message));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private record ImportRow(long lineNumber, ProductDTO product) {
+    }
+}
@@ -1,29 +1,50 @@
 package com.ecommerce.sbecom.service.impl;
 
+import com.ecommerce.sbecom.cache.ProductCache;
 import com.ecommerce.sbecom.entity.*;
 import com.ecommerce.sbecom.exception.APIException;
 import com.ecommerce.sbecom.exception.ResourceNotFoundException;
+import com.ecommerce.sbecom.mapper.ProductMapper;
+import com.ecommerce.sbecom.payload.CacheStatsDTO;
 import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductFilterDTO;
 import com.ecommerce.sbecom.payload.ProductResponse;
 import com.ecommerce.sbecom.repository.CartRepository;
 import com.ecommerce.sbecom.repository.CategoryRepository;
+import com.ecommerce.sbecom.repository.KeysetSpecification;
 import com.ecommerce.sbecom.repository.ProductRepository;
+import com.ecommerce.sbecom.repository.ProductSpecification;
+import com.ecommerce.sbecom.search.ProductSearchIndex;
+import com.ecommerce.sbecom.search.SearchResult;
 import com.ecommerce.sbecom.service.CartService;
 import com.ecommerce.sbecom.service.FileService;
 import com.ecommerce.sbecom.service.ProductService;
 import com.ecommerce.sbecom.util.AuthUtil;
+import com.ecommerce.sbecom.util.KeysetCursor;
+import com.ecommerce.sbecom.util.Money;
+import com.ecommerce.sbecom.worker.ImageVariantWorker;
 import jakarta.transaction.Transactional;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProductServiceImpl implements ProductService {
@@ -32,26 +53,41 @@ public class ProductServiceImpl implements ProductService {
     private final CartService cartService;
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
     private final FileService fileService;
     private final AuthUtil authUtil;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ImageVariantWorker imageVariantWorker;
 
     public ProductServiceImpl(CartRepository cartRepository,
                               CartService cartService,
                               ProductRepository productRepository,
                               CategoryRepository categoryRepository,
-                              ModelMapper modelMapper,
+                              ProductMapper productMapper,
                               FileService fileService,
-                              AuthUtil authUtil) {
+                              AuthUtil authUtil,
+                              ProductCache productCache,
+                              ProductSearchIndex productSearchIndex,
+                              ImageVariantWorker imageVariantWorker) {
         this.cartRepository = cartRepository;
         this.cartService = cartService;
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
-        this.modelMapper = modelMapper;
+        this.productMapper = productMapper;
         this.fileService = fileService;
         this.authUtil = authUtil;
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
+        this.imageVariantWorker = imageVariantWorker;
     }
 
+    // Text matches combined with other filters are sent as productId IN lists of at most this many ids.
+    private static final int TEXT_MATCH_CHUNK_SIZE = 5000;
+    private static final String PRODUCT_ID = "productId";
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of(PRODUCT_ID, "productName", "price", "specialPrice", "discount", "quantity");
+
     @Value("${project.image}")
     private String path;
 
@@ -65,12 +101,17 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category", "categoryId", categoryId));
     }
 
-    private double computeSpecialPrice(double price, double discount) {
-        return price * (1 - discount / 100.0);
+    // The exists check above is only a fast path; the unique key settles a race between two concurrent inserts.
+    private Product saveUnique(Product product) {
+        try {
+            return productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw new APIException("Product already exists!");
+        }
     }
 
     private ProductDTO mapToDTO(Product product) {
-        return modelMapper.map(product, ProductDTO.class);
+        return productMapper.toDTO(product);
     }
 
     @Override
@@ -81,97 +122,245 @@ public class ProductServiceImpl implements ProductService {
         if(!currentUser.hasRole(AppRole.ROLE_SELLER))
             throw new APIException("Only sellers can add products.");
 
-        boolean alreadyExists = category.getProducts().stream()
-                .anyMatch(p -> p.getProductName().equalsIgnoreCase(productDTO.getProductName()));
-
-        if (alreadyExists) {
+        if (productRepository.existsByCategoryCategoryIdAndProductNameKey(
+                category.getCategoryId(), Product.nameKey(productDTO.getProductName()))) {
             throw new APIException("Product already exists!");
         }
 
-        Product product = modelMapper.map(productDTO, Product.class);
+        Product product = productMapper.toEntity(productDTO);
         product.setCategory(category);
         product.setUser(currentUser);
         product.setImage("default.png");
 
-        product.setSpecialPrice(computeSpecialPrice(product.getPrice(), product.getDiscount()));
+        product.setSpecialPrice(Money.applyDiscount(product.getPrice(), product.getDiscount()));
 
-        Product updatedProduct = productRepository.save(product);
+        Product updatedProduct = saveUnique(product);
+        productSearchIndex.index(updatedProduct);
+        productCache.evictPages();
 
         return mapToDTO(updatedProduct);
     }
 
     @Override
     public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy,
-                                          String sortOrder, String query, Long categoryId,
-                                          Boolean createdByMe, User currentUser) {
+                                          String sortOrder, String cursor, ProductFilterDTO filterDTO,
+                                          User currentUser) {
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new APIException("Products cannot be sorted by: " + sortBy);
+        }
+
+        // Seller-specific listings are not shared between users, so they bypass the cache.
+        if (Boolean.TRUE.equals(filterDTO.getCreatedByMe()) && currentUser != null
+                && currentUser.hasRole(AppRole.ROLE_SELLER)) {
+            filterDTO.setSellerId(currentUser.getUserId());
+            return loadProducts(pageNumber, pageSize, sortBy, sortOrder, cursor, filterDTO);
+        }
 
-        Pageable pageable = PageRequest.of(pageNumber, pageSize,
-                "asc".equalsIgnoreCase(sortOrder) ? Sort.by(sortBy).ascending()
-                                                               : Sort.by(sortBy).descending());
+        filterDTO.setCreatedByMe(false);
+        String key = String.join("|", String.valueOf(pageNumber), String.valueOf(pageSize), sortBy,
+                sortOrder, String.valueOf(cursor), filterDTO.toString());
+        boolean stockSensitive = Boolean.TRUE.equals(filterDTO.getInStock()) || "quantity".equals(sortBy);
+        return productCache.getPage(key, stockSensitive, () ->
+                loadProducts(pageNumber, pageSize, sortBy, sortOrder, cursor, filterDTO));
+    }
+
+    private ProductResponse loadProducts(Integer pageNumber, Integer pageSize, String sortBy,
+                                         String sortOrder, String cursor, ProductFilterDTO filterDTO) {
+        if (filterDTO.getCategoryId() != null && !categoryRepository.existsById(filterDTO.getCategoryId())) {
+            throw new ResourceNotFoundException("Category", "categoryId", filterDTO.getCategoryId());
+        }
 
-        Page<Product> page;
+        String query = filterDTO.getQuery();
+        boolean hasQuery = query != null && !query.isBlank();
+        boolean ascending = "asc".equalsIgnoreCase(sortOrder);
 
-        if (Boolean.TRUE.equals(createdByMe) && currentUser.hasRole(AppRole.ROLE_SELLER)) {
-            page = productRepository.findByUser(currentUser, pageable);
-        } else if (query != null && !query.isBlank()) {
-            page = productRepository.findByProductNameLikeIgnoreCase("%" + query + "%", pageable);
-        } else if (categoryId != null) {
-            page = productRepository.findByCategory(getCategoryOrThrow(categoryId), pageable);
-        } else {
-            page = productRepository.findAll(pageable);
+        // A bare text search is ranked by relevance; combined with other filters it becomes one more predicate.
+        if (cursor == null && hasQuery && isTextOnly(filterDTO) && productSearchIndex.isReady()) {
+            return searchProducts(query, pageNumber, pageSize);
         }
 
+        List<Specification<Product>> specifications = filterSpecifications(filterDTO, hasQuery ? query : null);
+        if (cursor != null) {
+            return loadProductsAfter(cursor, pageSize, sortBy, ascending, specifications);
+        }
+        if (specifications.size() > 1) {
+            return loadPageFromChunks(specifications, pageNumber, pageSize, sortBy, ascending);
+        }
+
+        Pageable pageable = PageRequest.of(pageNumber, pageSize, KeysetSpecification.sort(sortBy, PRODUCT_ID, ascending));
+        Page<Product> page = productRepository.findAll(specifications.get(0), pageable);
+
         List<ProductDTO> dtoList = page.getContent().stream()
-                .map(product -> modelMapper.map(product, ProductDTO.class))
+                .map(this::mapToDTO)
                 .toList();
 
         return new ProductResponse(dtoList, pageNumber, pageSize,
-                page.getTotalElements(), page.getTotalPages(), page.isLast());
-    }
-
-//    @Override
-//    public ProductResponse getAllProducts(Integer pageNumber, Integer pageSize, String sortBy,
-//                                          String sortOrder, ProductFilterDTO filterDTO, User currentUser) {
-//        Pageable pageable = PageRequest.of(pageNumber, pageSize,
-//                sortOrder.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending());
-//
-//        Specification<Product> specification = ProductSpecification.getSpecification(filterDTO);
-//
-//        if (Boolean.TRUE.equals(filterDTO.getCreatedByMe()) && currentUser.hasRole(AppRole.ROLE_SELLER)) {
-//            specification = specification.and((root, query, cb) -> cb.equal(root.get("user"), currentUser));
-//        }
-//
-//        Page<Product> productPage = productRepository.findAll(specification, pageable);
-//
-//        List<ProductDTO> productDTOs = productPage.getContent().stream()
-//                .map(product -> modelMapper.map(product, ProductDTO.class))
-//                .toList();
-//
-//        return new ProductResponse(productDTOs, pageNumber, pageSize,
-//                productPage.getTotalElements(), productPage.getTotalPages(), productPage.isLast());
-//    }
+                page.getTotalElements(), page.getTotalPages(), page.isLast(), null);
+    }
+
+    // Keyset mode: seeks past the cursor instead of counting and skipping rows, and never runs COUNT(*).
+    private ProductResponse loadProductsAfter(String cursor, Integer pageSize, String sortBy, boolean ascending,
+                                              List<Specification<Product>> specifications) {
+        Specification<Product> after = cursor.isBlank() ? null
+                : KeysetSpecification.after(KeysetCursor.decode(cursor), sortBy, PRODUCT_ID, ascending);
+        Sort sort = KeysetSpecification.sort(sortBy, PRODUCT_ID, ascending);
+
+        // Each chunk yields its own first pageSize + 1 rows; the page is the first pageSize + 1 of their union.
+        List<Product> products = new ArrayList<>();
+        for (Specification<Product> specification : specifications) {
+            products.addAll(productRepository.findBy(after == null ? specification : specification.and(after),
+                    q -> q.sortBy(sort).limit(pageSize + 1).all()));
+        }
+        if (specifications.size() > 1) {
+            products.sort(order(sortBy, ascending));
+        }
+
+        boolean hasMore = products.size() > pageSize;
+        if (hasMore) {
+            products = products.subList(0, pageSize);
+        }
+
+        List<ProductDTO> dtoList = products.stream()
+                .map(this::mapToDTO)
+                .toList();
+        String nextCursor = hasMore ? KeysetCursor.encode(products.get(products.size() - 1), sortBy, PRODUCT_ID) : null;
+
+        return new ProductResponse(dtoList, null, pageSize, null, null, !hasMore, nextCursor);
+    }
+
+    // Offset mode over several chunks: the page lies within the first (pageNumber + 1) * pageSize rows of
+    // each chunk, so only those are loaded and merged; the total is the sum of the chunk counts.
+    private ProductResponse loadPageFromChunks(List<Specification<Product>> specifications, int pageNumber,
+                                               int pageSize, String sortBy, boolean ascending) {
+        List<Long> counts = specifications.stream().map(productRepository::count).toList();
+        long total = counts.stream().mapToLong(Long::longValue).sum();
+        long offset = (long) pageNumber * pageSize;
+        int totalPages = (int) Math.ceil((double) total / pageSize);
+
+        List<Product> products = new ArrayList<>();
+        if (offset < total) {
+            Sort sort = KeysetSpecification.sort(sortBy, PRODUCT_ID, ascending);
+            for (int i = 0; i < specifications.size(); i++) {
+                int limit = (int) Math.min(offset + pageSize, counts.get(i));
+                if (limit > 0) {
+                    products.addAll(productRepository.findBy(specifications.get(i),
+                            q -> q.sortBy(sort).limit(limit).all()));
+                }
+            }
+            products.sort(order(sortBy, ascending));
+        }
+
+        List<ProductDTO> dtoList = products.stream()
+                .skip(offset)
+                .limit(pageSize)
+                .map(this::mapToDTO)
+                .toList();
+        return new ProductResponse(dtoList, pageNumber, pageSize, total, totalPages, pageNumber >= totalPages - 1, null);
+    }
+
+    // The same (sortBy, productId) order the database applies. Names compare like MySQL's default
+    // collation, ignoring case and accents.
+    private static Comparator<Product> order(String sortBy, boolean ascending) {
+        Comparator<Product> bySortField = switch (sortBy) {
+            case "productName" -> {
+                Collator collator = Collator.getInstance(Locale.ROOT);
+                collator.setStrength(Collator.PRIMARY);
+                yield Comparator.comparing(Product::getProductName, Comparator.nullsFirst(collator));
+            }
+            case "price" -> Comparator.comparingLong(Product::getPrice);
+            case "specialPrice" -> Comparator.comparingLong(Product::getSpecialPrice);
+            case "discount" -> Comparator.comparingDouble(Product::getDiscount);
+            case "quantity" -> Comparator.comparing(Product::getQuantity, Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> (a, b) -> 0;
+        };
+        Comparator<Product> order = bySortField.thenComparing(Product::getProductId);
+        return ascending ? order : order.reversed();
+    }
+
+    private boolean isTextOnly(ProductFilterDTO filterDTO) {
+        return filterDTO.getCategoryId() == null
+                && filterDTO.getSellerId() == null
+                && filterDTO.getMinPrice() == null
+                && filterDTO.getMaxPrice() == null
+                && filterDTO.getMinSpecialPrice() == null
+                && filterDTO.getMaxSpecialPrice() == null
+                && filterDTO.getMinDiscount() == null
+                && !Boolean.TRUE.equals(filterDTO.getInStock());
+    }
+
+    // Text always matches through the search index, whatever the number of matches: a large match set is
+    // split into chunks, each combined with the other filters. Until the index is ready it is a name LIKE.
+    private List<Specification<Product>> filterSpecifications(ProductFilterDTO filterDTO, String query) {
+        Specification<Product> filters = ProductSpecification.getSpecification(filterDTO);
+        if (query == null) {
+            return List.of(filters);
+        }
+        if (!productSearchIndex.isReady()) {
+            return List.of(filters.and(ProductSpecification.nameContains(query)));
+        }
 
+        List<Long> matchingIds = productSearchIndex.matchingIds(query).stream().sorted().toList();
+        if (matchingIds.isEmpty()) {
+            return List.of((root, criteriaQuery, cb) -> cb.disjunction());
+        }
+        List<Specification<Product>> specifications = new ArrayList<>();
+        for (int from = 0; from < matchingIds.size(); from += TEXT_MATCH_CHUNK_SIZE) {
+            List<Long> chunk = matchingIds.subList(from, Math.min(from + TEXT_MATCH_CHUNK_SIZE, matchingIds.size()));
+            specifications.add(filters.and(ProductSpecification.idIn(chunk)));
+        }
+        return specifications;
+    }
+
+    private ProductResponse searchProducts(String query, Integer pageNumber, Integer pageSize) {
+        SearchResult result = productSearchIndex.search(query, pageNumber * pageSize, pageSize);
+
+        Map<Long, Product> productsById = productRepository.findAllById(result.productIds()).stream()
+                .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+        List<ProductDTO> dtoList = result.productIds().stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToDTO)
+                .toList();
+
+        int totalPages = (int) Math.ceil((double) result.totalMatches() / pageSize);
+        return new ProductResponse(dtoList, pageNumber, pageSize,
+                result.totalMatches(), totalPages, pageNumber >= totalPages - 1, null);
+    }
 
     @Override
     public ProductDTO getProductById(Long productId) {
-        return mapToDTO(getProductOrThrow(productId));
+        return productCache.getProduct(productId, () -> mapToDTO(getProductOrThrow(productId)));
     }
 
     @Override
     public ProductDTO updateProduct(Long productId, ProductDTO productDTO) {
         Product productFromDb = getProductOrThrow(productId);
 
+        String nameKey = Product.nameKey(productDTO.getProductName());
+        if (!Objects.equals(nameKey, Product.nameKey(productFromDb.getProductName()))
+                && productRepository.existsByCategoryCategoryIdAndProductNameKeyAndProductIdNot(
+                        productFromDb.getCategory().getCategoryId(), nameKey, productId)) {
+            throw new APIException("Product already exists!");
+        }
+
+        long previousSpecialPrice = productFromDb.getSpecialPrice();
+        double previousDiscount = productFromDb.getDiscount();
+
         productFromDb.setProductName(productDTO.getProductName());
         productFromDb.setDescription(productDTO.getDescription());
         productFromDb.setQuantity(productDTO.getQuantity());
         productFromDb.setDiscount(productDTO.getDiscount());
-        productFromDb.setPrice(productDTO.getPrice());
-        productFromDb.setSpecialPrice(computeSpecialPrice(productDTO.getPrice(), productDTO.getDiscount()));
+        productFromDb.setPrice(Money.toMinor(productDTO.getPrice()));
+        productFromDb.setSpecialPrice(Money.applyDiscount(productFromDb.getPrice(), productDTO.getDiscount()));
 
-        Product savedProduct = productRepository.save(productFromDb);
+        // Carts are not touched here; they pick up the new price the next time they are read.
+        if (productFromDb.getSpecialPrice() != previousSpecialPrice || productFromDb.getDiscount() != previousDiscount) {
+            productFromDb.setPriceVersion(productFromDb.getPriceVersion() + 1);
+        }
 
-        cartRepository.findCartsByProductId(productId).forEach(cart ->
-                cartService.updateProductInCarts(cart.getCartId(), productId));
+        Product savedProduct = saveUnique(productFromDb);
+        productSearchIndex.index(savedProduct);
+        productCache.evictProduct(productId);
 
         return mapToDTO(savedProduct);
     }
@@ -186,7 +375,9 @@ public class ProductServiceImpl implements ProductService {
         );
 
         productRepository.delete(productFromDb);
-        return modelMapper.map(productFromDb, ProductDTO.class);
+        productSearchIndex.remove(productId);
+        productCache.evictProduct(productId);
+        return mapToDTO(productFromDb);
     }
 
     @Override
@@ -195,8 +386,16 @@ public class ProductServiceImpl implements ProductService {
 
         String fileName = fileService.uploadImage(path, image);
         productFromDb.setImage(fileName);
+        productFromDb.setThumbnailImage(null);
 
-        Product updatedProduct = productRepository.save(productFromDb);
+        Product updatedProduct = saveUnique(productFromDb);
+        productCache.evictProductImage(productId);
+        imageVariantWorker.generateThumbnail(productId, path, fileName);
         return mapToDTO(updatedProduct);
     }
+
+    @Override
+    public List<CacheStatsDTO> getCacheStats() {
+        return productCache.stats();
+    }
 }
\ No newline at end of file
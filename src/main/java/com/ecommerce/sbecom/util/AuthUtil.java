@@ -2,34 +2,68 @@ package com.ecommerce.sbecom.util;
 
 import com.ecommerce.sbecom.entity.User;
 import com.ecommerce.sbecom.repository.UserRepository;
+import com.ecommerce.sbecom.security.service.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Component
 public class AuthUtil {
+    private static final String CURRENT_USER_ATTRIBUTE = AuthUtil.class.getName() + ".CURRENT_USER";
+
     @Autowired
     private UserRepository userRepository;
 
+    // The full entity is only needed for writes that reference it; it is loaded at most once per request.
     public User authenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            User cached = (User) requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
-        return userRepository.findByUserName(username)
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        User user = userRepository.findByUserName(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
     }
 
     public String loggedInEmail() {
+        UserDetailsImpl principal = jwtPrincipal();
+        if (principal != null && principal.getEmail() != null) {
+            return principal.getEmail();
+        }
         return authenticatedUser().getEmail();
     }
 
     public Long loggedInUserId() {
+        UserDetailsImpl principal = jwtPrincipal();
+        if (principal != null && principal.getId() != null) {
+            return principal.getId();
+        }
         return authenticatedUser().getUserId();
     }
 
     public User loggedInUser() {
         return authenticatedUser();
     }
+
+    // Tokens issued before the id and email claims were added carry neither, so callers fall back to the database.
+    private UserDetailsImpl jwtPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl principal) {
+            return principal;
+        }
+        return null;
+    }
 }
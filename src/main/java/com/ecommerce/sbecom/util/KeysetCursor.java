@@ -0,0 +1,82 @@
+package com.ecommerce.sbecom.util;
+
+import com.ecommerce.sbecom.exception.APIException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset ("seek") pagination: the sort key and id of the
+ * last row a client has seen, so the next page starts right after it without an OFFSET.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_MARKER = "n";
+    private static final String VALUE_MARKER = "v";
+
+    private final Long id;
+    private final String value;
+
+    private KeysetCursor(Long id, String value) {
+        this.id = id;
+        this.value = value;
+    }
+
+    public static String encode(Object entity, String sortBy, String idAttribute) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        Object sortValue = wrapper.getPropertyValue(sortBy);
+        Object id = wrapper.getPropertyValue(idAttribute);
+
+        String raw = id + SEPARATOR + (sortValue == null ? NULL_MARKER + SEPARATOR : VALUE_MARKER + SEPARATOR + sortValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            if (parts.length != 3) {
+                throw new APIException("Invalid cursor: " + token);
+            }
+            Long id = Long.valueOf(parts[0]);
+            return new KeysetCursor(id, NULL_MARKER.equals(parts[1]) ? null : parts[2]);
+        } catch (IllegalArgumentException e) {
+            throw new APIException("Invalid cursor: " + token);
+        }
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public boolean hasNullValue() {
+        return value == null;
+    }
+
+    public Object getValue(Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            }
+            if (type == Double.class || type == double.class) {
+                return Double.valueOf(value);
+            }
+            if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            throw new APIException("Invalid cursor value: " + value);
+        }
+    }
+}
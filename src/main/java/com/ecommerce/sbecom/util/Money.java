@@ -0,0 +1,35 @@
+package com.ecommerce.sbecom.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Amounts are held as whole minor units (cents), so cart and order totals are exact sums that
+ * can be kept incrementally without drift. API payloads and the existing DOUBLE columns stay in
+ * major units and are converted at the edges.
+ */
+public final class Money {
+
+    private static final int SCALE = 2;
+    private static final long MINOR_PER_MAJOR = 100L;
+
+    private Money() {
+        throw new UnsupportedOperationException("Cannot instantiate utility class");
+    }
+
+    public static long toMinor(double major) {
+        return Math.round(major * MINOR_PER_MAJOR);
+    }
+
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_PER_MAJOR;
+    }
+
+    // Rounded to the nearest minor unit once, so every line total built from it is exact.
+    public static long applyDiscount(long minor, double discountPercent) {
+        return Math.round(minor * (100.0 - discountPercent) / 100.0);
+    }
+
+    public static String format(long minor) {
+        return BigDecimal.valueOf(minor, SCALE).toPlainString();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ecommerce.sbecom.worker;
+
+import com.ecommerce.sbecom.entity.EmailNotification;
+import com.ecommerce.sbecom.entity.NotificationStatus;
+import com.ecommerce.sbecom.repository.EmailNotificationRepository;
+import com.ecommerce.sbecom.service.EmailService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Drains the email outbox. Due notifications are claimed in batches, rendered and sent on the mail
+ * executor, and rescheduled with exponential backoff when delivery fails. A claim is a lease: if the
+ * node dies mid-send the row becomes due again once the lease runs out.
+ */
+@Slf4j
+@Component
+public class EmailOutboxWorker {
+
+    private static final List<NotificationStatus> CLAIMABLE = List.of(NotificationStatus.PENDING, NotificationStatus.PROCESSING);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailNotificationRepository emailNotificationRepository;
+    private final EmailService emailService;
+    private final AsyncTaskExecutor mailTaskExecutor;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${project.mail.outbox.claim-size:100}")
+    private int claimSize;
+
+    @Value("${project.mail.outbox.send-batch-size:20}")
+    private int sendBatchSize;
+
+    @Value("${project.mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${project.mail.outbox.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${project.mail.outbox.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public EmailOutboxWorker(EmailNotificationRepository emailNotificationRepository,
+                             EmailService emailService,
+                             @Qualifier("mailTaskExecutor") AsyncTaskExecutor mailTaskExecutor,
+                             TransactionTemplate transactionTemplate) {
+        this.emailNotificationRepository = emailNotificationRepository;
+        this.emailService = emailService;
+        this.mailTaskExecutor = mailTaskExecutor;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${project.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<EmailNotification> claimed;
+        do {
+            claimed = claimDue();
+            if (!claimed.isEmpty() && !deliver(claimed)) {
+                return;
+            }
+        } while (claimed.size() == claimSize);
+    }
+
+    private List<EmailNotification> claimDue() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<EmailNotification> due = emailNotificationRepository.findDueForUpdate(
+                    CLAIMABLE, now, PageRequest.of(0, claimSize));
+            Instant leaseExpiry = now.plusSeconds(leaseSeconds);
+            for (EmailNotification notification : due) {
+                notification.setStatus(NotificationStatus.PROCESSING);
+                notification.setNextAttemptAt(leaseExpiry);
+            }
+            return emailNotificationRepository.saveAll(due);
+        });
+    }
+
+    /**
+     * Sends the claimed rows in batches on the mail executor and waits for them. Returns false when
+     * the executor rejected a batch; the unsent rows are handed back so the caller stops claiming.
+     */
+    private boolean deliver(List<EmailNotification> claimed) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        boolean accepted = true;
+        for (int from = 0; from < claimed.size(); from += sendBatchSize) {
+            List<EmailNotification> batch = claimed.subList(from, Math.min(from + sendBatchSize, claimed.size()));
+            try {
+                sends.add(CompletableFuture
+                        .supplyAsync(() -> emailService.sendNotifications(batch), mailTaskExecutor)
+                        .exceptionally(e -> failAll(batch, e))
+                        .thenAccept(failures -> record(batch, failures)));
+            } catch (TaskRejectedException e) {
+                List<EmailNotification> unsent = claimed.subList(from, claimed.size());
+                log.warn("Mail executor is saturated; releasing {} claimed notifications", unsent.size());
+                release(unsent);
+                accepted = false;
+                break;
+            }
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        return accepted;
+    }
+
+    // Ends the lease on rows that were claimed but never handed to the executor. No attempt is
+    // counted, since nothing was sent.
+    private void release(List<EmailNotification> unsent) {
+        Instant now = Instant.now();
+        for (EmailNotification notification : unsent) {
+            notification.setStatus(NotificationStatus.PENDING);
+            notification.setNextAttemptAt(now);
+        }
+        transactionTemplate.executeWithoutResult(status -> emailNotificationRepository.saveAll(unsent));
+    }
+
+    private Map<Long, String> failAll(List<EmailNotification> batch, Throwable e) {
+        log.error("Email batch of {} failed", batch.size(), e);
+        Map<Long, String> failures = new HashMap<>();
+        batch.forEach(notification -> failures.put(notification.getNotificationId(), String.valueOf(e.getMessage())));
+        return failures;
+    }
+
+    private void record(List<EmailNotification> batch, Map<Long, String> failures) {
+        Instant now = Instant.now();
+        for (EmailNotification notification : batch) {
+            if (!failures.containsKey(notification.getNotificationId())) {
+                notification.setStatus(NotificationStatus.SENT);
+                notification.setSentAt(now);
+                notification.setLastError(null);
+                continue;
+            }
+
+            int attempts = notification.getAttempts() + 1;
+            notification.setAttempts(attempts);
+            notification.setLastError(truncate(failures.get(notification.getNotificationId())));
+            if (attempts >= maxAttempts) {
+                notification.setStatus(NotificationStatus.FAILED);
+                log.warn("Giving up on email notification {} after {} attempts", notification.getNotificationId(), attempts);
+            } else {
+                notification.setStatus(NotificationStatus.PENDING);
+                notification.setNextAttemptAt(now.plus(backoff(attempts)));
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> emailNotificationRepository.saveAll(batch));
+    }
+
+    private Duration backoff(int attempts) {
+        return Duration.ofSeconds(backoffSeconds << Math.min(attempts - 1, 10));
+    }
+
+    private String truncate(String error) {
+        if (error == null) {
+            return "Unknown error";
+        }
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
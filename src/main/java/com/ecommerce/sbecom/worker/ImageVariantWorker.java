@@ -0,0 +1,156 @@
+package com.ecommerce.sbecom.worker;
+
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+/**
+ * Produces the small JPEG that listing pages show instead of the full-size original. Runs on the
+ * image executor after the upload has been stored, and records the variant on the product only if
+ * the product still points at the same original. Dimensions are read from the header before
+ * anything is decoded: originals above the pixel limit are skipped, and large ones are decoded
+ * subsampled, so a small file that declares huge dimensions cannot exhaust the heap.
+ */
+@Slf4j
+@Component
+public class ImageVariantWorker {
+
+    private static final String THUMBNAIL_SUFFIX = "_thumb.jpg";
+
+    private final ProductRepository productRepository;
+    private final ProductCache productCache;
+    private final ThreadPoolTaskExecutor imageTaskExecutor;
+
+    @Value("${project.image.variants.thumbnail-size:320}")
+    private int thumbnailSize;
+
+    @Value("${project.image.variants.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${project.image.variants.max-pixels:50000000}")
+    private long maxPixels;
+
+    public ImageVariantWorker(ProductRepository productRepository,
+                              ProductCache productCache,
+                              @Qualifier("imageTaskExecutor") ThreadPoolTaskExecutor imageTaskExecutor) {
+        this.productRepository = productRepository;
+        this.productCache = productCache;
+        this.imageTaskExecutor = imageTaskExecutor;
+    }
+
+    public void generateThumbnail(Long productId, String path, String fileName) {
+        try {
+            imageTaskExecutor.execute(() -> createThumbnail(productId, path, fileName));
+        } catch (TaskRejectedException e) {
+            // The product keeps working with its original image; only the smaller variant is missing.
+            log.warn("Thumbnail queue full, skipping thumbnail for product {}", productId);
+        }
+    }
+
+    private void createThumbnail(Long productId, String path, String fileName) {
+        Path source = Paths.get(path, fileName);
+        try {
+            BufferedImage original = readForThumbnail(source);
+            if (original == null) {
+                return;
+            }
+
+            String thumbnailName = fileName.substring(0, fileName.lastIndexOf('.')) + THUMBNAIL_SUFFIX;
+            writeJpeg(resize(original), Paths.get(path, thumbnailName));
+
+            if (productRepository.updateThumbnailImage(productId, fileName, thumbnailName) > 0) {
+                productCache.evictProductImage(productId);
+            } else {
+                Files.deleteIfExists(Paths.get(path, thumbnailName));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error generating thumbnail for product {}", productId, e);
+        }
+    }
+
+    // Returns null, after logging why, when there is nothing the thumbnail can safely be made from.
+    private BufferedImage readForThumbnail(Path source) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) {
+                log.info("No thumbnail for {}: format not supported by ImageIO", source.getFileName());
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    log.warn("No thumbnail for {}: {}x{} exceeds the {} pixel limit", source.getFileName(),
+                            width, height, maxPixels);
+                    return null;
+                }
+
+                // Every n-th pixel is enough for a thumbnail; decoding stays at about twice its size.
+                int step = Math.max(1, Math.max(width, height) / (thumbnailSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage resize(BufferedImage original) {
+        double scale = Math.min(1.0, (double) thumbnailSize / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * scale));
+
+        // JPEG has no alpha channel, so transparent areas are flattened onto white.
+        BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(Files.newOutputStream(target))) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ecommerce.sbecom.worker;
+
+import com.ecommerce.sbecom.entity.EmailType;
+import com.ecommerce.sbecom.entity.Order;
+import com.ecommerce.sbecom.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ship and deliver endpoints used to record the step only in email_type and leave the status at
+ * "Order Accepted !", where the guarded transitions would strand those orders. They are moved to the
+ * status they were reported in, without sending any email. A no-op once no such rows remain.
+ */
+@Slf4j
+@Component
+public class LegacyOrderStatusBackfill {
+
+    private final OrderRepository orderRepository;
+
+    public LegacyOrderStatusBackfill(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int shipped = orderRepository.backfillLegacyStatus(Order.STATUS_ACCEPTED, EmailType.ORDER_SHIPPED,
+                Order.STATUS_SHIPPED);
+        int delivered = orderRepository.backfillLegacyStatus(Order.STATUS_ACCEPTED, EmailType.ORDER_DELIVERED,
+                Order.STATUS_DELIVERED);
+        if (shipped + delivered > 0) {
+            log.info("Moved {} legacy shipped and {} legacy delivered orders to their reported status", shipped, delivered);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.ecommerce.sbecom.worker;
+
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Fills in the name key for products saved before the column existed, so the duplicate check
+ * and unique constraint cover the whole catalog. Works through the rows in short batches, each in
+ * its own transaction, using the same normalisation as {@link Product#nameKey}. Products that
+ * already shared a name in their category get a disambiguated key and are reported, so they stay
+ * editable and can be cleaned up. A no-op once every row has a key.
+ */
+@Slf4j
+@Component
+public class ProductNameKeyBackfill {
+
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${project.products.name-key-backfill.batch-size:500}")
+    private int batchSize;
+
+    public ProductNameKeyBackfill(ProductRepository productRepository, PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        long lastId = 0L;
+        int updated = 0;
+        List<Long> duplicates = new ArrayList<>();
+        List<Object[]> batch;
+        do {
+            batch = productRepository.findUnkeyedAfter(lastId, PageRequest.of(0, batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            List<Object[]> rows = batch;
+            updated += Objects.requireNonNull(transactionTemplate.execute(status -> keyBatch(rows, duplicates)));
+            lastId = (Long) batch.get(batch.size() - 1)[0];
+        } while (batch.size() == batchSize);
+
+        if (updated > 0) {
+            log.info("Backfilled name keys for {} products", updated);
+        }
+        if (!duplicates.isEmpty()) {
+            log.warn("{} products share a name with another product in their category and were given "
+                    + "disambiguated name keys; rename or merge them: {}", duplicates.size(), duplicates);
+        }
+    }
+
+    private int keyBatch(List<Object[]> rows, List<Long> duplicates) {
+        Set<Long> categoryIds = new HashSet<>();
+        Set<String> nameKeys = new HashSet<>();
+        for (Object[] row : rows) {
+            if (row[1] != null && row[2] != null) {
+                categoryIds.add((Long) row[1]);
+                nameKeys.add(Product.nameKey((String) row[2]));
+            }
+        }
+        Set<String> taken = new HashSet<>();
+        if (!categoryIds.isEmpty()) {
+            productRepository.findCategoryAndNameKeys(categoryIds, nameKeys)
+                    .forEach(pair -> taken.add(pair[0] + "|" + pair[1]));
+        }
+
+        int updated = 0;
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            String key = Product.nameKey((String) row[2]);
+            // Without a category the unique constraint does not apply, so there is nothing to clash with.
+            if (row[1] != null && key != null && !taken.add(row[1] + "|" + key)) {
+                key = Product.duplicateNameKey(key, productId);
+                duplicates.add(productId);
+            }
+            updated += productRepository.setProductNameKey(productId, key);
+        }
+        return updated;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.sbecom.worker;
+
+import com.ecommerce.sbecom.service.InventoryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts the stock of abandoned checkouts back on sale once their reservation expires.
+ */
+@Slf4j
+@Component
+public class ReservationExpiryWorker {
+
+    private final InventoryService inventoryService;
+
+    @Value("${project.inventory.reservations.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    public ReservationExpiryWorker(InventoryService inventoryService) {
+        this.inventoryService = inventoryService;
+    }
+
+    @Scheduled(fixedDelayString = "${project.inventory.reservations.sweep-interval-ms:30000}")
+    public void releaseExpired() {
+        int released;
+        int total = 0;
+        do {
+            released = inventoryService.releaseExpiredReservations();
+            total += released;
+        } while (released == releaseBatchSize);
+
+        if (total > 0) {
+            log.info("Released {} expired inventory reservations", total);
+        }
+    }
+}
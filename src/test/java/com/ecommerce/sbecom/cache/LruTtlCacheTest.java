@@ -0,0 +1,144 @@
+package com.ecommerce.sbecom.cache;
+
+import com.ecommerce.sbecom.payload.CacheStatsDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LruTtlCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntryWhenFull() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 2, 60_000);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.getIfPresent("a");
+
+        cache.put("c", 3);
+
+        assertThat(cache.getIfPresent("b")).isNull();
+        assertThat(cache.getIfPresent("a")).isEqualTo(1);
+        assertThat(cache.getIfPresent("c")).isEqualTo(3);
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsEntriesOnceTheirDeadlinePasses() {
+        AtomicLong now = new AtomicLong(1_000);
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000, now::get);
+        cache.put("a", 1, 1_500);
+
+        now.set(1_499);
+        assertThat(cache.getIfPresent("a")).isEqualTo(1);
+
+        now.set(1_500);
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.stats().getExpirations()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresEntriesAfterTheCacheTtl() {
+        AtomicLong now = new AtomicLong(1_000);
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 20, now::get);
+        cache.put("a", 1);
+        cache.get("b", key -> 2);
+
+        now.set(1_019);
+        assertThat(cache.getIfPresent("a")).isEqualTo(1);
+        assertThat(cache.getIfPresent("b")).isEqualTo(2);
+
+        now.set(1_020);
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.getIfPresent("b")).isNull();
+    }
+
+    @Test
+    void ownDeadlineNeverExtendsPastTheCacheTtl() {
+        AtomicLong now = new AtomicLong(1_000);
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 20, now::get);
+        cache.put("a", 1, Long.MAX_VALUE);
+
+        now.set(1_020);
+
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    void loadsOnMissAndServesHitsFromCache() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(cache.get("a", key -> loads.incrementAndGet())).isEqualTo(1);
+        assertThat(cache.get("a", key -> loads.incrementAndGet())).isEqualTo(1);
+
+        assertThat(loads).hasValue(1);
+        CacheStatsDTO stats = cache.stats();
+        assertThat(stats.getHits()).isEqualTo(1);
+        assertThat(stats.getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotStoreNullLoads() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000);
+
+        assertThat(cache.get("a", key -> null)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void dropsLoadInvalidatedWhileRunning() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000);
+
+        Integer loaded = cache.get("a", key -> {
+            cache.invalidate(key);
+            return 1;
+        });
+
+        assertThat(loaded).isEqualTo(1);
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    void dropsLoadsRunningDuringPredicateInvalidation() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000);
+        cache.put("kept", 2);
+
+        cache.get("a", key -> {
+            cache.invalidateIf((cachedKey, value) -> value == 1);
+            return 1;
+        });
+
+        assertThat(cache.getIfPresent("a")).isNull();
+        assertThat(cache.getIfPresent("kept")).isEqualTo(2);
+    }
+
+    @Test
+    void dropsLoadsRunningDuringInvalidateAll() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000);
+
+        cache.get("a", key -> {
+            cache.invalidateAll();
+            return 1;
+        });
+
+        assertThat(cache.getIfPresent("a")).isNull();
+    }
+
+    @Test
+    void failedLoadLeavesNoTokenBehind() {
+        LruTtlCache<String, Integer> cache = new LruTtlCache<>("test", 10, 60_000);
+
+        assertThatThrownBy(() -> cache.get("a", key -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get("a", key -> 1)).isEqualTo(1);
+        assertThat(cache.getIfPresent("a")).isEqualTo(1);
+    }
+}
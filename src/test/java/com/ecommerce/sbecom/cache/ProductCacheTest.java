@@ -0,0 +1,81 @@
+package com.ecommerce.sbecom.cache;
+
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    private ProductCache productCache;
+
+    @BeforeEach
+    void setUp() {
+        productCache = new ProductCache(100, 100, 300);
+    }
+
+    @Test
+    void stockChangeDropsOnlyPagesShowingTheProductAndStockSensitivePages() {
+        AtomicInteger loads = new AtomicInteger();
+        productCache.getPage("showsOne", false, counting(loads, page(1L, 2L)));
+        productCache.getPage("showsOthers", false, counting(loads, page(3L, 4L)));
+        productCache.getPage("inStock", true, counting(loads, page(3L, 4L)));
+
+        productCache.evictStock(List.of(1L));
+        loads.set(0);
+
+        productCache.getPage("showsOne", false, counting(loads, page(1L, 2L)));
+        productCache.getPage("showsOthers", false, counting(loads, page(3L, 4L)));
+        productCache.getPage("inStock", true, counting(loads, page(3L, 4L)));
+
+        // "showsOthers" was still cached; the other two had to be loaded again.
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void productUpdateStillDropsEveryPage() {
+        AtomicInteger loads = new AtomicInteger();
+        productCache.getPage("showsOthers", false, counting(loads, page(3L, 4L)));
+
+        productCache.evictProduct(1L);
+        loads.set(0);
+        productCache.getPage("showsOthers", false, counting(loads, page(3L, 4L)));
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void callersCannotChangeTheCachedCopy() {
+        productCache.getProduct(1L, () -> product(1L));
+        productCache.getProduct(1L, () -> product(1L)).setQuantity(0);
+        productCache.getPage("page", false, () -> page(1L)).getContent().get(0).setQuantity(0);
+
+        assertThat(productCache.getProduct(1L, () -> null).getQuantity()).isEqualTo(10);
+        assertThat(productCache.getPage("page", false, () -> null).getContent().get(0).getQuantity()).isEqualTo(10);
+    }
+
+    private static Supplier<ProductResponse> counting(AtomicInteger loads, ProductResponse page) {
+        return () -> {
+            loads.incrementAndGet();
+            return page;
+        };
+    }
+
+    private static ProductResponse page(Long... productIds) {
+        List<ProductDTO> content = List.of(productIds).stream().map(ProductCacheTest::product).toList();
+        return new ProductResponse(content, 0, content.size(), (long) content.size(), 1, true, null);
+    }
+
+    private static ProductDTO product(Long productId) {
+        ProductDTO product = new ProductDTO();
+        product.setProductId(productId);
+        product.setQuantity(10);
+        return product;
+    }
+}
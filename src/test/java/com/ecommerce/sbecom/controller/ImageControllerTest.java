@@ -0,0 +1,52 @@
+package com.ecommerce.sbecom.controller;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageControllerTest {
+
+    @Test
+    void parsesClosedRange() {
+        assertThat(ImageController.parseRange("bytes=0-99", 1000)).containsExactly(0, 99);
+        assertThat(ImageController.parseRange(" bytes=10-10 ", 1000)).containsExactly(10, 10);
+    }
+
+    @Test
+    void openRangeRunsToEndOfFile() {
+        assertThat(ImageController.parseRange("bytes=500-", 1000)).containsExactly(500, 999);
+    }
+
+    @Test
+    void clampsEndPastEndOfFile() {
+        assertThat(ImageController.parseRange("bytes=900-5000", 1000)).containsExactly(900, 999);
+    }
+
+    @Test
+    void suffixRangeServesLastBytes() {
+        assertThat(ImageController.parseRange("bytes=-100", 1000)).containsExactly(900, 999);
+        assertThat(ImageController.parseRange("bytes=-5000", 1000)).containsExactly(0, 999);
+    }
+
+    @Test
+    void rejectsUnsatisfiableRanges() {
+        assertThat(ImageController.parseRange("bytes=1000-", 1000)).isNull();
+        assertThat(ImageController.parseRange("bytes=50-10", 1000)).isNull();
+        assertThat(ImageController.parseRange("bytes=-0", 1000)).isNull();
+        assertThat(ImageController.parseRange("bytes=0-0", 0)).isNull();
+    }
+
+    @Test
+    void rejectsMalformedOrUnsupportedRanges() {
+        assertThat(ImageController.parseRange("bytes=-", 1000)).isNull();
+        assertThat(ImageController.parseRange("bytes=0-1,5-9", 1000)).isNull();
+        assertThat(ImageController.parseRange("items=0-1", 1000)).isNull();
+        assertThat(ImageController.parseRange("bytes=a-b", 1000)).isNull();
+    }
+
+    @Test
+    void rejectsNumbersTooLongToParse() {
+        assertThat(ImageController.parseRange("bytes=0-99999999999999999999", 1000)).isNull();
+        assertThat(ImageController.parseRange("bytes=-99999999999999999999", 1000)).isNull();
+    }
+}
@@ -0,0 +1,175 @@
+package com.ecommerce.sbecom.search;
+
+import com.ecommerce.sbecom.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(productRepository);
+    }
+
+    @Test
+    void tokenizeLowerCasesAndSplitsOnNonAlphanumerics() {
+        assertThat(ProductSearchIndex.tokenize("USB-C Charger, 65W!"))
+                .containsExactly("usb", "c", "charger", "65w");
+    }
+
+    @Test
+    void tokenizeHandlesNullBlankAndTrailingWords() {
+        assertThat(ProductSearchIndex.tokenize(null)).isEmpty();
+        assertThat(ProductSearchIndex.tokenize("  --  ")).isEmpty();
+        assertThat(ProductSearchIndex.tokenize("Café au lait")).containsExactly("café", "au", "lait");
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        index.index(new ProductSearchDocument(1L, "Desk lamp", "Bright light"));
+        index.index(new ProductSearchDocument(2L, "Office chair", "Pairs well with a lamp"));
+
+        SearchResult result = index.search("lamp", 0, 10);
+
+        assertThat(result.productIds()).containsExactly(1L, 2L);
+        assertThat(result.totalMatches()).isEqualTo(2);
+    }
+
+    @Test
+    void ranksExactMatchesAbovePrefixMatches() {
+        index.index(new ProductSearchDocument(1L, "Laptops bundle", null));
+        index.index(new ProductSearchDocument(2L, "Laptop", null));
+
+        assertThat(index.search("laptop", 0, 10).productIds()).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void matchesQueryTermsAsPrefixes() {
+        index.index(new ProductSearchDocument(1L, "Gaming laptop", null));
+
+        assertThat(index.search("lap", 0, 10).productIds()).containsExactly(1L);
+        assertThat(index.search("top", 0, 10).productIds()).isEmpty();
+    }
+
+    @Test
+    void requiresEveryQueryTerm() {
+        index.index(new ProductSearchDocument(1L, "Red shirt", null));
+        index.index(new ProductSearchDocument(2L, "Blue shirt", null));
+
+        assertThat(index.search("red shirt", 0, 10).productIds()).containsExactly(1L);
+        assertThat(index.matchingIds("green shirt")).isEmpty();
+        assertThat(index.search("  ", 0, 10).totalMatches()).isZero();
+    }
+
+    @Test
+    void breaksTiesByLowerProductIdAndPages() {
+        index.index(new ProductSearchDocument(3L, "Mug", null));
+        index.index(new ProductSearchDocument(1L, "Mug", null));
+        index.index(new ProductSearchDocument(2L, "Mug", null));
+
+        assertThat(index.search("mug", 0, 2).productIds()).containsExactly(1L, 2L);
+        assertThat(index.search("mug", 2, 2).productIds()).containsExactly(3L);
+        assertThat(index.search("mug", 3, 2).productIds()).isEmpty();
+        assertThat(index.search("mug", 2, 2).totalMatches()).isEqualTo(3);
+    }
+
+    @Test
+    void reindexingReplacesOldTermsAndRemoveDropsProduct() {
+        index.index(new ProductSearchDocument(1L, "Kettle", null));
+        index.index(new ProductSearchDocument(1L, "Toaster", null));
+
+        assertThat(index.matchingIds("kettle")).isEmpty();
+        assertThat(index.matchingIds("toaster")).containsExactly(1L);
+
+        index.remove(1L);
+
+        assertThat(index.matchingIds("toaster")).isEmpty();
+    }
+
+    @Test
+    void rebuildKeepsProductsWrittenByRequestsWhileItRuns() {
+        when(productRepository.findSearchDocumentsAfter(eq(0L), any(Pageable.class))).thenAnswer(invocation -> {
+            // Requests rename product 1 and delete product 2 after the rebuild read its snapshot.
+            index.index(new ProductSearchDocument(1L, "New name", null));
+            index.remove(2L);
+            return List.of(
+                    new ProductSearchDocument(1L, "Old name", null),
+                    new ProductSearchDocument(2L, "Deleted", null),
+                    new ProductSearchDocument(3L, "Untouched", null));
+        });
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.matchingIds("new")).containsExactly(1L);
+        assertThat(index.matchingIds("old")).isEmpty();
+        assertThat(index.matchingIds("deleted")).isEmpty();
+        assertThat(index.matchingIds("untouched")).containsExactly(3L);
+    }
+
+    @Test
+    void rebuildPicksUpWritesMadeThroughOtherNodes() {
+        index.index(new ProductSearchDocument(1L, "Deleted elsewhere", null));
+        index.index(new ProductSearchDocument(2L, "Stale name", null));
+        when(productRepository.findSearchDocumentsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(
+                new ProductSearchDocument(2L, "Renamed elsewhere", null),
+                new ProductSearchDocument(3L, "Added elsewhere", null)));
+
+        index.rebuild();
+
+        assertThat(index.matchingIds("deleted")).isEmpty();
+        assertThat(index.matchingIds("stale")).isEmpty();
+        assertThat(index.matchingIds("renamed")).containsExactly(2L);
+        assertThat(index.matchingIds("added")).containsExactly(3L);
+    }
+
+    @Test
+    void writesInsideATransactionWaitForCommit() {
+        index.index(new ProductSearchDocument(1L, "Kettle", null));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(1L);
+            index.index(new ProductSearchDocument(2L, "Toaster", null));
+
+            assertThat(index.matchingIds("kettle")).containsExactly(1L);
+            assertThat(index.matchingIds("toaster")).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.matchingIds("kettle")).isEmpty();
+        assertThat(index.matchingIds("toaster")).containsExactly(2L);
+    }
+
+    @Test
+    void rolledBackWritesNeverReachTheIndex() {
+        index.index(new ProductSearchDocument(1L, "Kettle", null));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.remove(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(index.matchingIds("kettle")).containsExactly(1L);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.sbecom.service.impl;
+
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.cart.CartLine;
+import com.ecommerce.sbecom.cart.CartPriceReconciler;
+import com.ecommerce.sbecom.cart.CartState;
+import com.ecommerce.sbecom.cart.CartStore;
+import com.ecommerce.sbecom.cart.ProductPrice;
+import com.ecommerce.sbecom.mapper.CartMapper;
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import com.ecommerce.sbecom.util.AuthUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceImplTest {
+
+    private static final long USER_ID = 5L;
+    private static final long PRODUCT_ID = 7L;
+
+    private CartState cart;
+    private ProductRepository productRepository;
+    private ProductCache productCache;
+    private CartServiceImpl cartService;
+
+    @BeforeEach
+    void setUp() {
+        cart = new CartState(USER_ID, 1L, 0L, 0L);
+        productRepository = mock(ProductRepository.class);
+        productCache = mock(ProductCache.class);
+        AuthUtil authUtil = mock(AuthUtil.class);
+        when(authUtil.loggedInUserId()).thenReturn(USER_ID);
+
+        cartService = new CartServiceImpl(mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(cartService, "cartStore", new SingleCartStore());
+        ReflectionTestUtils.setField(cartService, "authUtil", authUtil);
+        ReflectionTestUtils.setField(cartService, "productRepository", productRepository);
+        ReflectionTestUtils.setField(cartService, "productCache", productCache);
+        ReflectionTestUtils.setField(cartService, "cartMapper", mock(CartMapper.class));
+        ReflectionTestUtils.setField(cartService, "priceReconciler", new CartPriceReconciler(productRepository));
+    }
+
+    // The cached product may lag the database; the total must still equal the sum of the lines.
+    @Test
+    void priceChangeBetweenQuantityUpdatesKeepsTotalExact() {
+        cart.putLine(new CartLine(PRODUCT_ID, 2, 1_000, 0.0, 1L));
+        cart.setTotalPrice(2_000);
+        priceInDatabase(1_000, 1L);
+        cachedProduct(10.00);
+
+        cartService.updateProductQuantityInCart(PRODUCT_ID, 1);
+        assertThat(cart.getTotalPrice()).isEqualTo(3_000);
+
+        // The price rises, and the cache already has the new price before the cart has been repriced.
+        priceInDatabase(1_500, 2L);
+        cachedProduct(15.00);
+
+        cartService.updateProductQuantityInCart(PRODUCT_ID, 1);
+
+        CartLine line = cart.getLine(PRODUCT_ID);
+        assertThat(line.getQuantity()).isEqualTo(4);
+        assertThat(line.getProductPrice()).isEqualTo(1_500);
+        assertThat(line.getPriceVersion()).isEqualTo(2L);
+        assertThat(cart.getTotalPrice()).isEqualTo(6_000);
+    }
+
+    @Test
+    void staleCachedPriceDoesNotLeakIntoTheLine() {
+        cart.putLine(new CartLine(PRODUCT_ID, 2, 1_500, 0.0, 2L));
+        cart.setTotalPrice(3_000);
+        priceInDatabase(1_500, 2L);
+        cachedProduct(10.00);
+
+        cartService.updateProductQuantityInCart(PRODUCT_ID, -1);
+
+        assertThat(cart.getLine(PRODUCT_ID).getProductPrice()).isEqualTo(1_500);
+        assertThat(cart.getTotalPrice()).isEqualTo(1_500);
+    }
+
+    private void priceInDatabase(long specialPrice, long priceVersion) {
+        when(productRepository.findPrices(anyCollection()))
+                .thenReturn(List.of(new ProductPrice(PRODUCT_ID, specialPrice, 0.0, priceVersion)));
+    }
+
+    private void cachedProduct(double specialPrice) {
+        ProductDTO product = new ProductDTO();
+        product.setProductId(PRODUCT_ID);
+        product.setProductName("Mug");
+        product.setQuantity(100);
+        product.setSpecialPrice(specialPrice);
+        when(productCache.getProduct(eq(PRODUCT_ID), any())).thenReturn(product);
+    }
+
+    private class SingleCartStore implements CartStore {
+
+        @Override
+        public <T> T read(Long userId, Function<CartState, T> reader) {
+            return reader.apply(cart);
+        }
+
+        @Override
+        public <T> T update(Long userId, Function<CartState, T> mutation) {
+            return mutation.apply(cart);
+        }
+
+        @Override
+        public void flush(Long userId) {
+        }
+
+        @Override
+        public void invalidate(Long userId) {
+        }
+    }
+}
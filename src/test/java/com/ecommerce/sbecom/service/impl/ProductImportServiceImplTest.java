@@ -0,0 +1,146 @@
+package com.ecommerce.sbecom.service.impl;
+
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.entity.AppRole;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.entity.Role;
+import com.ecommerce.sbecom.entity.User;
+import com.ecommerce.sbecom.payload.ProductImportErrorDTO;
+import com.ecommerce.sbecom.payload.ProductImportReport;
+import com.ecommerce.sbecom.repository.CategoryRepository;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import com.ecommerce.sbecom.search.ProductSearchIndex;
+import com.ecommerce.sbecom.util.AuthUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceImplTest {
+
+    private static final String HEADER = "productName,description,quantity,price,discount,categoryId";
+
+    private final List<Product> pending = new ArrayList<>();
+    private ProductSearchIndex productSearchIndex;
+    private ProductImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findExistingIds(anyCollection())).thenReturn(List.of(3L));
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        User seller = new User("seller", "seller@example.com", "secret");
+        seller.getRoles().add(new Role(AppRole.ROLE_SELLER));
+        AuthUtil authUtil = mock(AuthUtil.class);
+        when(authUtil.loggedInUser()).thenReturn(seller);
+
+        // Stands in for the database: a flush fails, and rolls back, if any pending product is named "Broken".
+        EntityManager entityManager = mock(EntityManager.class);
+        doAnswer(invocation -> pending.add(invocation.getArgument(0))).when(entityManager).persist(any());
+        doAnswer(invocation -> {
+            boolean broken = pending.stream().anyMatch(product -> product.getProductName().startsWith("Broken"));
+            pending.clear();
+            if (broken) {
+                throw new PersistenceException("Data too long for column 'product_name'");
+            }
+            return null;
+        }).when(entityManager).flush();
+
+        productSearchIndex = mock(ProductSearchIndex.class);
+        importService = new ProductImportServiceImpl(mock(ProductRepository.class), categoryRepository,
+                transactionTemplate, new ObjectMapper(), authUtil, productSearchIndex, mock(ProductCache.class));
+        ReflectionTestUtils.setField(importService, "entityManager", entityManager);
+    }
+
+    @Test
+    void failedChunkIsRetriedSoOnlyTheBadRowFails() throws Exception {
+        ProductImportReport report = importService.importProducts(csv(
+                "Blue mug,A blue mug,10,9.99,0,3",
+                "Broken mug,A broken mug,10,9.99,0,3",
+                "Red mug,A red mug,10,9.99,0,3"));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(report.getErrors()).extracting(ProductImportErrorDTO::getRowNumber).containsExactly(3L);
+        assertThat(report.getErrors().get(0).getMessage()).contains("Data too long");
+        verify(productSearchIndex, times(2)).index(any(Product.class));
+    }
+
+    @Test
+    void rejectsNonFinitePriceAndDiscount() throws Exception {
+        ProductImportReport report = importService.importProducts(csv(
+                "Blue mug,A blue mug,10,NaN,0,3",
+                "Red mug,A red mug,10,Infinity,0,3",
+                "Green mug,A green mug,10,9.99,NaN,3"));
+
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).extracting(ProductImportErrorDTO::getMessage).containsExactly(
+                "Price must be zero or more", "Price must be zero or more", "Discount must be between 0 and 100");
+    }
+
+    @Test
+    void splitsPlainFields() {
+        assertThat(ProductImportServiceImpl.parseCsvLine("Mug,Blue mug,10,9.99,0,3"))
+                .containsExactly("Mug", "Blue mug", "10", "9.99", "0", "3");
+    }
+
+    @Test
+    void keepsCommasInsideQuotedFields() {
+        assertThat(ProductImportServiceImpl.parseCsvLine("\"Mug, large\",\"Holds 1,000 ml\",5"))
+                .containsExactly("Mug, large", "Holds 1,000 ml", "5");
+    }
+
+    @Test
+    void unescapesDoubledQuotes() {
+        assertThat(ProductImportServiceImpl.parseCsvLine("\"The \"\"best\"\" mug\",\"\"\"\""))
+                .containsExactly("The \"best\" mug", "\"");
+    }
+
+    @Test
+    void keepsEmptyFieldsIncludingTrailingOnes() {
+        assertThat(ProductImportServiceImpl.parseCsvLine(",a,,")).containsExactly("", "a", "", "");
+        assertThat(ProductImportServiceImpl.parseCsvLine("")).containsExactly("");
+        assertThat(ProductImportServiceImpl.parseCsvLine("\"\",x")).containsExactly("", "x");
+    }
+
+    @Test
+    void leavesWhitespaceForTheCallerToTrim() {
+        assertThat(ProductImportServiceImpl.parseCsvLine(" a , \"b\" "))
+                .containsExactly(" a ", " b ");
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() {
+        assertThatThrownBy(() -> ProductImportServiceImpl.parseCsvLine("\"Mug,10"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unterminated");
+    }
+
+    private static MockMultipartFile csv(String... rows) {
+        String content = HEADER + "\n" + String.join("\n", rows) + "\n";
+        return new MockMultipartFile("file", "products.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
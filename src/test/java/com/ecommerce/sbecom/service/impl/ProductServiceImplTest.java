@@ -0,0 +1,108 @@
+package com.ecommerce.sbecom.service.impl;
+
+import com.ecommerce.sbecom.cache.ProductCache;
+import com.ecommerce.sbecom.entity.Category;
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.exception.ResourceNotFoundException;
+import com.ecommerce.sbecom.mapper.ProductMapper;
+import com.ecommerce.sbecom.payload.ProductDTO;
+import com.ecommerce.sbecom.payload.ProductFilterDTO;
+import com.ecommerce.sbecom.repository.CartRepository;
+import com.ecommerce.sbecom.repository.CategoryRepository;
+import com.ecommerce.sbecom.repository.ProductRepository;
+import com.ecommerce.sbecom.search.ProductSearchIndex;
+import com.ecommerce.sbecom.service.CartService;
+import com.ecommerce.sbecom.service.FileService;
+import com.ecommerce.sbecom.util.AuthUtil;
+import com.ecommerce.sbecom.worker.ImageVariantWorker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceImplTest {
+
+    private static final long PRODUCT_ID = 7L;
+
+    private CartRepository cartRepository;
+    private CartService cartService;
+    private ProductRepository productRepository;
+    private CategoryRepository categoryRepository;
+    private ProductServiceImpl productService;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        cartService = mock(CartService.class);
+        productRepository = mock(ProductRepository.class);
+        categoryRepository = mock(CategoryRepository.class);
+        productService = new ProductServiceImpl(cartRepository, cartService, productRepository,
+                categoryRepository, mock(ProductMapper.class), mock(FileService.class),
+                mock(AuthUtil.class), new ProductCache(10, 10, 300), mock(ProductSearchIndex.class),
+                mock(ImageVariantWorker.class));
+        when(productRepository.saveAndFlush(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    // Reconciliation is lazy, so a price change costs the same however many carts hold the product.
+    @Test
+    void priceChangeBumpsVersionWithoutTouchingCarts() {
+        Product product = product(10_000, 0.0);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        productService.updateProduct(PRODUCT_ID, dto(120.00, 0.0));
+
+        assertThat(product.getSpecialPrice()).isEqualTo(12_000);
+        assertThat(product.getPriceVersion()).isEqualTo(1);
+        verifyNoInteractions(cartRepository, cartService);
+    }
+
+    @Test
+    void unchangedPriceKeepsVersion() {
+        Product product = product(10_000, 10.0);
+        when(productRepository.findById(PRODUCT_ID)).thenReturn(Optional.of(product));
+
+        productService.updateProduct(PRODUCT_ID, dto(100.00, 10.0));
+
+        assertThat(product.getPriceVersion()).isZero();
+        verifyNoInteractions(cartRepository, cartService);
+    }
+
+    @Test
+    void listingAnUnknownCategoryIsNotFound() {
+        ProductFilterDTO filterDTO = new ProductFilterDTO();
+        filterDTO.setCategoryId(99L);
+        when(categoryRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> productService.getAllProducts(0, 10, "productId", "asc", null, filterDTO, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private static Product product(long price, double discount) {
+        Category category = new Category();
+        category.setCategoryId(1L);
+        Product product = new Product();
+        product.setProductId(PRODUCT_ID);
+        product.setProductName("Mug");
+        product.setCategory(category);
+        product.setPrice(price);
+        product.setDiscount(discount);
+        product.setSpecialPrice(Math.round(price * (1 - discount / 100)));
+        return product;
+    }
+
+    private static ProductDTO dto(double price, double discount) {
+        ProductDTO productDTO = new ProductDTO();
+        productDTO.setProductName("Mug");
+        productDTO.setQuantity(5);
+        productDTO.setPrice(price);
+        productDTO.setDiscount(discount);
+        return productDTO;
+    }
+}
@@ -0,0 +1,86 @@
+package com.ecommerce.sbecom.util;
+
+import com.ecommerce.sbecom.entity.Product;
+import com.ecommerce.sbecom.exception.APIException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsStringSortValue() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(product(42L, "Desk lamp"), "productName", "productId"));
+
+        assertThat(cursor.getId()).isEqualTo(42L);
+        assertThat(cursor.hasNullValue()).isFalse();
+        assertThat(cursor.getValue(String.class)).isEqualTo("Desk lamp");
+    }
+
+    @Test
+    void roundTripsValueContainingTheSeparator() {
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.encode(product(7L, "A|B|C"), "productName", "productId"));
+
+        assertThat(cursor.getValue(String.class)).isEqualTo("A|B|C");
+    }
+
+    @Test
+    void roundTripsNumericSortValues() {
+        Product product = product(9L, "Mug");
+        product.setPrice(1999L);
+        product.setDiscount(12.5);
+
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(product, "price", "productId")).getValue(long.class))
+                .isEqualTo(1999L);
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(product, "discount", "productId")).getValue(Double.class))
+                .isEqualTo(12.5);
+    }
+
+    @Test
+    void keepsNullDistinctFromEmptyString() {
+        KeysetCursor nullCursor = KeysetCursor.decode(KeysetCursor.encode(product(1L, null), "productName", "productId"));
+        KeysetCursor emptyCursor = KeysetCursor.decode(KeysetCursor.encode(product(1L, ""), "productName", "productId"));
+
+        assertThat(nullCursor.hasNullValue()).isTrue();
+        assertThat(nullCursor.getValue(String.class)).isNull();
+        assertThat(nullCursor.getId()).isEqualTo(1L);
+        assertThat(emptyCursor.hasNullValue()).isFalse();
+        assertThat(emptyCursor.getValue(String.class)).isEqualTo("");
+    }
+
+    @Test
+    void encodesUrlSafeWithoutPadding() {
+        String token = KeysetCursor.encode(product(1L, "??>>"), "productName", "productId");
+
+        assertThat(token).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!")).isInstanceOf(APIException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encodeRaw("12"))).isInstanceOf(APIException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encodeRaw("abc|v|x"))).isInstanceOf(APIException.class);
+    }
+
+    @Test
+    void rejectsValueThatDoesNotMatchTheSortType() {
+        KeysetCursor cursor = KeysetCursor.decode(encodeRaw("5|v|cheap"));
+
+        assertThatThrownBy(() -> cursor.getValue(Long.class)).isInstanceOf(APIException.class);
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product();
+        product.setProductId(id);
+        product.setProductName(name);
+        return product;
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.sbecom.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedIdsTest {
+
+    private static final long NODE_ID = 17L;
+    private static final long EPOCH_MILLIS = 1_735_689_600_000L;
+
+    @BeforeEach
+    void setUp() {
+        TimeOrderedIds.configure(NODE_ID);
+    }
+
+    @Test
+    void idsAreStrictlyIncreasingThroughSequenceRollover() {
+        long previous = TimeOrderedIds.next();
+        // Far more ids than one millisecond's 128-value sequence can hold.
+        for (int i = 0; i < 50_000; i++) {
+            long id = TimeOrderedIds.next();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+    }
+
+    @Test
+    void packsTimestampNodeAndSequence() {
+        long before = System.currentTimeMillis() - EPOCH_MILLIS;
+        long id = TimeOrderedIds.next();
+
+        assertThat((id >> 7) & 31).isEqualTo(NODE_ID);
+        assertThat(id & 127).isBetween(0L, 127L);
+        // The timestamp may run ahead of the clock after a burst, but never behind it.
+        assertThat(id >> 12).isGreaterThanOrEqualTo(before);
+        assertThat(id).isLessThan(1L << 53);
+    }
+
+    @Test
+    void sequenceCountsUpWithinAMillisecond() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(TimeOrderedIds.next());
+        }
+        for (int i = 1; i < ids.size(); i++) {
+            long previous = ids.get(i - 1);
+            long id = ids.get(i);
+            if (id >> 12 == previous >> 12) {
+                assertThat(id & 127).isEqualTo((previous & 127) + 1);
+            } else {
+                assertThat(id & 127).isZero();
+            }
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverReceiveTheSameId() throws Exception {
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    Set<Long> local = new HashSet<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        local.add(TimeOrderedIds.next());
+                    }
+                    ids.addAll(local);
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(ids).hasSize(80_000);
+    }
+
+    @Test
+    void rejectsNodeIdsOutsideFiveBits() {
+        assertThatThrownBy(() -> TimeOrderedIds.configure(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TimeOrderedIds.configure(32)).isInstanceOf(IllegalArgumentException.class);
+    }
+}